@@ -0,0 +1,58 @@
+package com.plateforme.electronique.gateway.client;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plateforme.electronique.gateway.dto.Entitlements;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entitlements of users, cached locally so that the routing path never waits for subscription-service:
+ * a user seen for the first time gets the default entitlements while theirs are loaded, and cached ones
+ * are refreshed in the background. When subscription-service cannot answer, the default is cached until the
+ * next refresh.
+ */
+@Component
+@Slf4j
+public class SubscriptionClient {
+
+    private final AsyncLoadingCache<String, Entitlements> entitlements;
+
+    public SubscriptionClient(WebClient.Builder loadBalancedWebClientBuilder,
+                              @Value("${gateway.subscription-service.url:http://subscription-service}") String baseUrl,
+                              @Value("${gateway.subscription-service.timeout-millis:2000}") long timeoutMillis,
+                              @Value("${gateway.entitlements.refresh-seconds:300}") long refreshSeconds,
+                              @Value("${gateway.entitlements.maximum-size:100000}") long maximumSize) {
+        WebClient webClient = loadBalancedWebClientBuilder.baseUrl(baseUrl).build();
+        Duration timeout = Duration.ofMillis(timeoutMillis);
+        this.entitlements = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(refreshSeconds * 4))
+                .buildAsync((userId, executor) -> webClient.get()
+                        .uri("/internal/subscriptions/users/{userId}/entitlements", userId)
+                        .retrieve()
+                        .bodyToMono(Entitlements.class)
+                        .timeout(timeout)
+                        .onErrorResume(e -> {
+                            log.debug("Entitlements of user {} unavailable: {}", userId, e.getMessage());
+                            return Mono.empty();
+                        })
+                        .defaultIfEmpty(Entitlements.DEFAULT)
+                        .toFuture());
+    }
+
+    /**
+     * Returns the cached entitlements, or the default while they are loaded for the first time.
+     */
+    public Entitlements current(String userId) {
+        CompletableFuture<Entitlements> future = entitlements.get(userId);
+        return future.isDone() && !future.isCompletedExceptionally() ? future.join() : Entitlements.DEFAULT;
+    }
+}
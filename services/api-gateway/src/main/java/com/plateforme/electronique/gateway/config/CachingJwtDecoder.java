@@ -0,0 +1,62 @@
+package com.plateforme.electronique.gateway.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers tokens that passed verification until they expire, so a client sending the same token on every
+ * request pays for the signature check and the claim validation once.
+ */
+class CachingJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+
+    CachingJwtDecoder(ReactiveJwtDecoder delegate, long maximumSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String token, Jwt jwt, long currentTime) {
+                        return remainingLifetime(jwt).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Jwt jwt, long currentTime, long currentDuration) {
+                        return remainingLifetime(jwt).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) {
+        Jwt jwt = verified.getIfPresent(token);
+        if (jwt != null) {
+            return Mono.just(jwt);
+        }
+        return delegate.decode(token).doOnNext(decoded -> verified.put(token, decoded));
+    }
+
+    private static Duration remainingLifetime(Jwt jwt) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
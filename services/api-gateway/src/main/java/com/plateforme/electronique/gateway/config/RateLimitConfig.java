@@ -0,0 +1,56 @@
+package com.plateforme.electronique.gateway.config;
+
+import com.plateforme.electronique.gateway.filter.IdentityHeadersFilter;
+import com.plateforme.electronique.gateway.service.PlanRateLimiter;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+@Configuration
+public class RateLimitConfig {
+
+    /**
+     * Rate limit key: the authenticated user, from the header set by {@link IdentityHeadersFilter},
+     * otherwise the client address.
+     */
+    @Bean
+    public KeyResolver userKeyResolver() {
+        return exchange -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String userId = request.getHeaders().getFirst(IdentityHeadersFilter.USER_ID_HEADER);
+            if (isUuid(userId)) {
+                return Mono.just(PlanRateLimiter.USER_KEY_PREFIX + userId.toLowerCase());
+            }
+            InetSocketAddress remote = request.getRemoteAddress();
+            return Mono.just("ip:" + (remote != null ? remote.getAddress().getHostAddress() : "unknown"));
+        };
+    }
+
+    /**
+     * Resolves service names (e.g. {@code http://subscription-service}) through Eureka.
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+
+    private static boolean isUuid(String value) {
+        if (value == null || value.length() != 36) {
+            return false;
+        }
+        try {
+            UUID.fromString(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,27 +1,68 @@
 package com.plateforme.electronique.gateway.config;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsConfigurationSource;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Claims of the access tokens issued by user-auth-service.
+     */
+    static final String USER_ID_CLAIM = "userId";
+    static final String ROLE_CLAIM = "role";
+
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder jwtDecoder) {
         return http
                 .csrf(ServerHttpSecurity.CsrfSpec::disable)
                 .cors(Customizer.withDefaults())
-                .authorizeExchange(exchange -> exchange.anyExchange().permitAll())
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers(HttpMethod.OPTIONS).permitAll()
+                        .pathMatchers("/api/gateway/**").hasRole("ADMIN")
+                        .pathMatchers("/api/invoices/**", "/api/clients/**", "/api/payments/**",
+                                "/api/subscriptions/**").authenticated()
+                        .anyExchange().permitAll())
+                .oauth2ResourceServer(resourceServer -> resourceServer
+                        .jwt(jwt -> jwt.jwtDecoder(jwtDecoder).jwtAuthenticationConverter(this::authentication)))
                 .build();
     }
 
+    /**
+     * Verifies the HS256 access tokens signed by user-auth-service with the shared secret. Tokens that
+     * passed are cached until they expire.
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(@Value("${gateway.jwt.secret}") String secret,
+                                         @Value("${gateway.jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withSecretKey(key)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        return new CachingJwtDecoder(decoder, verifiedCacheSize);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -34,4 +75,13 @@ public class SecurityConfig {
         source.registerCorsConfiguration("/**", config);
         return source;
     }
+
+    private Mono<AbstractAuthenticationToken> authentication(Jwt jwt) {
+        String userId = jwt.getClaimAsString(USER_ID_CLAIM);
+        String role = jwt.getClaimAsString(ROLE_CLAIM);
+        List<SimpleGrantedAuthority> authorities = role != null
+                ? List.of(new SimpleGrantedAuthority("ROLE_" + role))
+                : List.of();
+        return Mono.just(new JwtAuthenticationToken(jwt, authorities, userId != null ? userId : jwt.getSubject()));
+    }
 }
@@ -0,0 +1,21 @@
+package com.plateforme.electronique.gateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+
+@Configuration
+public class UpstreamHttpConfig {
+
+    /**
+     * Talks cleartext HTTP/2 (prior knowledge) to the services, multiplexing the requests of a route over a
+     * few connections. Every service behind the gateway must then run with {@code server.http2.enabled}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "gateway.upstream.h2c", havingValue = "true")
+    public HttpClientCustomizer h2cHttpClientCustomizer() {
+        return httpClient -> httpClient.protocol(HttpProtocol.H2C);
+    }
+}
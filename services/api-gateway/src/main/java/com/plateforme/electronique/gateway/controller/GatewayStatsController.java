@@ -0,0 +1,24 @@
+package com.plateforme.electronique.gateway.controller;
+
+import com.plateforme.electronique.gateway.dto.ResponseCacheStats;
+import com.plateforme.electronique.gateway.service.ResponseCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/gateway")
+public class GatewayStatsController {
+
+    private final ResponseCache responseCache;
+
+    public GatewayStatsController(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ResponseCacheStats> cacheStats() {
+        return ResponseEntity.ok(responseCache.stats());
+    }
+}
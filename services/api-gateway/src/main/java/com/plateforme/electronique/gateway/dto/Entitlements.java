@@ -0,0 +1,26 @@
+package com.plateforme.electronique.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Plan features of a user, as served by subscription-service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Entitlements {
+
+    /**
+     * Applied while the entitlements of a user are unknown: FREE plan, no monthly allowance.
+     */
+    public static final Entitlements DEFAULT = new Entitlements("FREE", 0, false);
+
+    private String plan;
+    /**
+     * {@code null} when the plan is unlimited.
+     */
+    private Integer maxInvoicesPerMonth;
+    private boolean apiAccess;
+}
@@ -0,0 +1,31 @@
+package com.plateforme.electronique.gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseCacheStats {
+
+    private long entries;
+    private long hits;
+    private long misses;
+    /**
+     * Requests answered by an identical upstream call already in progress.
+     */
+    private long coalesced;
+    private long upstreamCalls;
+    /**
+     * Hits plus coalesced requests.
+     */
+    private long upstreamCallsSaved;
+    private long stored;
+    private long invalidations;
+    private double hitRatio;
+    /**
+     * Share of the cacheable requests that did not reach the upstream service.
+     */
+    private double savedRatio;
+}
@@ -0,0 +1,53 @@
+package com.plateforme.electronique.gateway.filter;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Bounds the requests a route has in flight with the Resilience4j bulkhead named {@code name} (by default
+ * the route id), configured under {@code resilience4j.bulkhead}. Requests over the limit are answered with
+ * 503 once {@code max-wait-duration} has passed, so a slow upstream holds at most its own share of the
+ * gateway's connections.
+ */
+@Component
+public class BulkheadGatewayFilterFactory extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public BulkheadGatewayFilterFactory(BulkheadRegistry bulkheadRegistry) {
+        super(Config.class);
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("name");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(config.getName() != null ? config.getName() : config.getRouteId());
+        return (exchange, chain) -> chain.filter(exchange)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(BulkheadFullException.class,
+                        e -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e));
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String name;
+        private String routeId;
+    }
+}
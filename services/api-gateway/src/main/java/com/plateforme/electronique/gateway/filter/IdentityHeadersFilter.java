@@ -0,0 +1,53 @@
+package com.plateforme.electronique.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Forwards the identity of the verified token to the services as trusted headers. The same headers sent
+ * by the client are always removed first, so a service can rely on them without checking the token again.
+ */
+@Component
+public class IdentityHeadersFilter implements GlobalFilter, Ordered {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_ROLE_HEADER = "X-User-Role";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return exchange.getPrincipal()
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(principal -> withIdentity(exchange, (JwtAuthenticationToken) principal))
+                .switchIfEmpty(Mono.fromSupplier(() -> withIdentity(exchange, null)))
+                .flatMap(chain::filter);
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private static ServerWebExchange withIdentity(ServerWebExchange exchange, JwtAuthenticationToken authentication) {
+        return exchange.mutate().request(request -> request.headers(headers -> {
+            headers.remove(USER_ID_HEADER);
+            headers.remove(USER_ROLE_HEADER);
+            if (authentication == null) {
+                return;
+            }
+            headers.set(USER_ID_HEADER, authentication.getName());
+            authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                    .findFirst()
+                    .ifPresent(role -> headers.set(USER_ROLE_HEADER, role.substring(ROLE_PREFIX.length())));
+        })).build();
+    }
+}
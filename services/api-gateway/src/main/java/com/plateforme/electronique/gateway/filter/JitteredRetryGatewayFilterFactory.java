@@ -0,0 +1,112 @@
+package com.plateforme.electronique.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory.BackoffConfig;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory.RetryConfig;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.util.retry.Retry;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The {@code Retry} filter with a random jitter on its backoff, so that the requests failed by one upstream
+ * incident are not all retried at the same instant. Takes the same arguments as {@code Retry}; the backoff
+ * doubles at each attempt, so {@code factor} must be 2.
+ */
+@Component
+public class JitteredRetryGatewayFilterFactory extends AbstractGatewayFilterFactory<RetryConfig> {
+
+    /**
+     * Each delay is drawn between half and one and a half times the exponential backoff.
+     */
+    private static final double JITTER_FACTOR = 0.5;
+
+    public JitteredRetryGatewayFilterFactory() {
+        super(RetryConfig.class);
+    }
+
+    @Override
+    public GatewayFilter apply(RetryConfig config) {
+        config.validate();
+        BackoffConfig backoff = config.getBackoff();
+        if (backoff != null && backoff.getFactor() != 2) {
+            throw new IllegalArgumentException("JitteredRetry doubles its backoff, factor must be 2");
+        }
+        return (exchange, chain) -> {
+            if (!config.getMethods().contains(exchange.getRequest().getMethod())) {
+                return chain.filter(exchange);
+            }
+            return Mono.defer(() -> chain.filter(exchange)
+                            .then(Mono.defer(() -> retryableStatus(exchange.getResponse().getStatusCode(), config)
+                                    ? Mono.<Void>error(new RetryableStatusException())
+                                    : Mono.<Void>empty())))
+                    .retryWhen(retry(config, exchange))
+                    // The last answer had a retryable status: it is passed on as is.
+                    .onErrorResume(RetryableStatusException.class, e -> Mono.empty());
+        };
+    }
+
+    private static Retry retry(RetryConfig config, ServerWebExchange exchange) {
+        BackoffConfig backoff = config.getBackoff();
+        if (backoff == null) {
+            return Retry.max(config.getRetries())
+                    .filter(error -> retryable(error, config))
+                    .doBeforeRetry(signal -> reset(exchange))
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        }
+        return Retry.backoff(config.getRetries(), backoff.getFirstBackoff())
+                .maxBackoff(backoff.getMaxBackoff())
+                .jitter(JITTER_FACTOR)
+                .filter(error -> retryable(error, config))
+                .doBeforeRetry(signal -> reset(exchange))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private static boolean retryable(Throwable error, RetryConfig config) {
+        return error instanceof RetryableStatusException || config.getExceptions().stream()
+                .anyMatch(type -> type.isInstance(error) || error.getCause() != null && type.isInstance(error.getCause()));
+    }
+
+    private static boolean retryableStatus(HttpStatusCode status, RetryConfig config) {
+        if (status == null) {
+            return false;
+        }
+        return config.getStatuses().stream().anyMatch(retryable -> retryable.value() == status.value())
+                || config.getSeries().stream().anyMatch(series -> series.value() == status.value() / 100);
+    }
+
+    /**
+     * Closes the connection of the failed attempt and drops the headers it copied to the response, so that
+     * the next attempt is routed again from scratch.
+     */
+    private static void reset(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.channel().close();
+            connection.dispose();
+        }
+        Set<String> addedHeaders = exchange.getAttributeOrDefault(
+                ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES, Collections.emptySet());
+        addedHeaders.forEach(header -> exchange.getResponse().getHeaders().remove(header));
+        ServerWebExchangeUtils.removeAlreadyRouted(exchange);
+    }
+
+    /**
+     * Signals an upstream answer with a retryable status; never leaves the filter.
+     */
+    private static final class RetryableStatusException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        RetryableStatusException() {
+            super(null, null, false, false);
+        }
+    }
+}
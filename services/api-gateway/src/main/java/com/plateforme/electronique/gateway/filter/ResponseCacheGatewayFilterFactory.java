@@ -0,0 +1,274 @@
+package com.plateforme.electronique.gateway.filter;
+
+import com.plateforme.electronique.gateway.service.ResponseCache;
+import com.plateforme.electronique.gateway.service.ResponseCache.CachedResponse;
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Caches the GET responses of the route matching {@code paths} for at most {@code ttl}, per user, and
+ * coalesces concurrent identical GETs into one upstream call.
+ *
+ * <p>Only 200 responses are stored, for the {@code max-age}/{@code s-maxage} they allow if shorter;
+ * responses marked {@code no-store} or {@code no-cache} are not. A request sent with {@code no-store} skips
+ * the cache, one sent with {@code no-cache} or {@code max-age=0} skips the lookup but refreshes the entry.
+ * A cached response whose ETag matches {@code If-None-Match} is answered with 304. Conditional requests that
+ * miss the cache go upstream on their own, as their answer depends on the validators they carry. Responses are
+ * streamed to the client as they arrive; bodies larger than {@code max-entry-bytes} are not kept.
+ *
+ * <p>Any other method on the route drops the user's responses in the {@code evicts} scopes (by default the
+ * route's own scope), both before the call and once it has succeeded.
+ *
+ * <p>The filter runs ahead of the route's other filters, so responses served from the cache are not counted
+ * by the rate limiter.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /**
+     * Ahead of the filter writing the upstream response, which the cache has to capture.
+     */
+    static final int FILTER_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final List<String> STORED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED);
+
+    private final ResponseCache cache;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache cache) {
+        super(Config.class);
+        this.cache = cache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = config.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        List<String> evicts = config.getEvicts().isEmpty() ? List.of(config.getScope()) : config.getEvicts();
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            String user = Optional.ofNullable(request.getHeaders().getFirst(IdentityHeadersFilter.USER_ID_HEADER))
+                    .orElse("");
+            HttpMethod method = request.getMethod();
+            if (HttpMethod.GET.equals(method)) {
+                if (!matches(patterns, request) || requestDirective(request, "no-store")) {
+                    return chain.filter(exchange);
+                }
+                String target = request.getURI().getRawQuery() == null ? request.getURI().getRawPath()
+                        : request.getURI().getRawPath() + "?" + request.getURI().getRawQuery();
+                return cached(exchange, chain, new ResponseCache.Key(config.getScope(), user, target), config.getTtl());
+            }
+            if (HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method)) {
+                return chain.filter(exchange);
+            }
+            evicts.forEach(scope -> cache.invalidate(scope, user));
+            exchange.getResponse().beforeCommit(() -> Mono.fromRunnable(() -> {
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                if (status != null && status.is2xxSuccessful()) {
+                    evicts.forEach(scope -> cache.invalidate(scope, user));
+                }
+            }));
+            return chain.filter(exchange);
+        }, FILTER_ORDER);
+    }
+
+    private Mono<Void> cached(ServerWebExchange exchange, GatewayFilterChain chain, ResponseCache.Key key,
+                              Duration ttl) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!requestDirective(request, "no-cache") && !requestDirective(request, "max-age=0")) {
+            CachedResponse hit = cache.get(key);
+            if (hit != null) {
+                return write(exchange, hit, "HIT");
+            }
+        }
+        HttpHeaders requestHeaders = request.getHeaders();
+        if (!requestHeaders.getIfNoneMatch().isEmpty() || requestHeaders.getIfModifiedSince() != -1) {
+            return chain.filter(exchange);
+        }
+
+        long generation = cache.generation(key);
+        Sinks.One<CachedResponse> result = Sinks.one();
+        Mono<CachedResponse> load = result.asMono();
+        Mono<CachedResponse> inProgress = cache.join(key, load, generation);
+        if (inProgress != null) {
+            return inProgress
+                    .map(Optional::of)
+                    .onErrorResume(e -> Mono.empty())
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(shared -> shared.isPresent()
+                            ? write(exchange, shared.get(), "COALESCED")
+                            : chain.filter(exchange));
+        }
+
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                BodyCapture capture = new BodyCapture(cache.maxEntryBytes());
+                return super.writeWith(Flux.from(body).doOnNext(capture::append))
+                        .then(Mono.fromRunnable(() -> {
+                            byte[] bytes = capture.bytes();
+                            if (bytes == null) {
+                                // Too large to share: the coalesced requests go upstream on their own.
+                                result.tryEmitEmpty();
+                                return;
+                            }
+                            CachedResponse response = snapshot(getDelegate(), bytes, ttl);
+                            result.tryEmitValue(response);
+                            if (response.status() == HttpStatus.OK.value()) {
+                                cache.store(key, response, generation);
+                            }
+                        }));
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    cache.leave(key, load);
+                    result.tryEmitEmpty();
+                });
+    }
+
+    private static Mono<Void> write(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+        headers.set(HttpHeaders.AGE, Long.toString((System.currentTimeMillis() - cached.storedAtMillis()) / 1000));
+        String etag = cached.headers().getETag();
+        if (cached.status() == HttpStatus.OK.value() && etag != null
+                && exchange.getRequest().getHeaders().getIfNoneMatch().contains(etag)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private static CachedResponse snapshot(ServerHttpResponse response, byte[] body, Duration ttl) {
+        HttpHeaders headers = new HttpHeaders();
+        STORED_HEADERS.forEach(name -> {
+            List<String> values = response.getHeaders().get(name);
+            if (values != null) {
+                headers.put(name, new ArrayList<>(values));
+            }
+        });
+        HttpStatusCode status = response.getStatusCode() != null ? response.getStatusCode() : HttpStatus.OK;
+        return new CachedResponse(status.value(), HttpHeaders.readOnlyHttpHeaders(headers), body,
+                System.currentTimeMillis(), freshness(headers.getCacheControl(), ttl));
+    }
+
+    /**
+     * How long the response may be cached: the route TTL, shortened by the response's Cache-Control.
+     */
+    private static Duration freshness(String cacheControl, Duration ttl) {
+        if (cacheControl == null) {
+            return ttl;
+        }
+        Duration freshness = ttl;
+        for (String directive : cacheControl.toLowerCase().split(",")) {
+            directive = directive.trim();
+            if (directive.equals("no-store") || directive.equals("no-cache")) {
+                return Duration.ZERO;
+            }
+            if (directive.startsWith("max-age=") || directive.startsWith("s-maxage=")) {
+                try {
+                    long seconds = Long.parseLong(directive.substring(directive.indexOf('=') + 1));
+                    freshness = freshness.compareTo(Duration.ofSeconds(seconds)) < 0
+                            ? freshness : Duration.ofSeconds(seconds);
+                } catch (NumberFormatException e) {
+                    return Duration.ZERO;
+                }
+            }
+        }
+        return freshness;
+    }
+
+    private static boolean requestDirective(ServerHttpRequest request, String directive) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase().contains(directive);
+    }
+
+    private static boolean matches(List<PathPattern> patterns, ServerHttpRequest request) {
+        return patterns.stream().anyMatch(pattern -> pattern.matches(request.getPath().pathWithinApplication()));
+    }
+
+    /**
+     * Copy of a response body taken as it is streamed to the client, given up once it grows past the
+     * largest entry the cache stores.
+     */
+    private static final class BodyCapture {
+
+        private final int limit;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        BodyCapture(int limit) {
+            this.limit = limit;
+        }
+
+        void append(DataBuffer buffer) {
+            int readable = buffer.readableByteCount();
+            if (bytes == null || bytes.size() + readable > limit) {
+                bytes = null;
+                return;
+            }
+            byte[] chunk = new byte[readable];
+            int position = buffer.readPosition();
+            buffer.read(chunk);
+            buffer.readPosition(position);
+            bytes.write(chunk, 0, readable);
+        }
+
+        /**
+         * The whole body, or null if it was too large.
+         */
+        byte[] bytes() {
+            return bytes == null ? null : bytes.toByteArray();
+        }
+    }
+
+    @Data
+    public static class Config {
+
+        /**
+         * Name under which the responses of the route are cached and invalidated.
+         */
+        private String scope;
+        private Duration ttl = Duration.ofSeconds(5);
+        /**
+         * Path patterns of the cached GETs; other GETs of the route are passed through.
+         */
+        private List<String> paths = new ArrayList<>();
+        /**
+         * Scopes invalidated by the other methods on the route.
+         */
+        private List<String> evicts = new ArrayList<>();
+    }
+}
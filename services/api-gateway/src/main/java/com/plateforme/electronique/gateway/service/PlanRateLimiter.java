@@ -0,0 +1,168 @@
+package com.plateforme.electronique.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plateforme.electronique.gateway.client.SubscriptionClient;
+import com.plateforme.electronique.gateway.dto.Entitlements;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per user and route, sized from the plan of the user.
+ *
+ * <p>Users with API access refill at the {@code api} rate, the others at the {@code interactive} rate;
+ * the bucket holds at least the tier burst and up to a day of the plan's monthly invoice quota, so a bulk
+ * import does not hit the limit. Keys that are not user ids (client addresses) get the {@code anonymous}
+ * bucket.
+ *
+ * <p>Buckets live in Redis and are updated atomically by a Lua script. When Redis does not answer within
+ * {@code redis-timeout-millis}, the request is decided by an in-memory bucket of this instance instead and
+ * Redis is left alone for {@code redis-retry-millis}; the limit is then only approximate, as every gateway
+ * instance counts on its own.
+ */
+@Component
+@Primary
+@Slf4j
+public class PlanRateLimiter extends AbstractRateLimiter<PlanRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "plan-rate-limiter";
+    public static final String USER_KEY_PREFIX = "user:";
+
+    private static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    private static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    private static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> script;
+    private final SubscriptionClient subscriptionClient;
+    private final Duration redisTimeout;
+    private final long redisRetryMillis;
+    private final Limits interactive;
+    private final Limits api;
+    private final Limits anonymous;
+    private final int maxBurstCapacity;
+    private final Cache<String, LocalBucket> localBuckets;
+    private final AtomicLong redisRetryAt = new AtomicLong();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PlanRateLimiter(ConfigurationService configurationService,
+                           ReactiveStringRedisTemplate redisTemplate,
+                           SubscriptionClient subscriptionClient,
+                           @Value("${gateway.rate-limit.redis-timeout-millis:20}") long redisTimeoutMillis,
+                           @Value("${gateway.rate-limit.redis-retry-millis:1000}") long redisRetryMillis,
+                           @Value("${gateway.rate-limit.interactive.replenish-rate:10}") int interactiveRate,
+                           @Value("${gateway.rate-limit.interactive.burst-capacity:30}") int interactiveBurst,
+                           @Value("${gateway.rate-limit.api.replenish-rate:50}") int apiRate,
+                           @Value("${gateway.rate-limit.api.burst-capacity:100}") int apiBurst,
+                           @Value("${gateway.rate-limit.anonymous.replenish-rate:5}") int anonymousRate,
+                           @Value("${gateway.rate-limit.anonymous.burst-capacity:10}") int anonymousBurst,
+                           @Value("${gateway.rate-limit.max-burst-capacity:1000}") int maxBurstCapacity) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.redisTemplate = redisTemplate;
+        this.script = (RedisScript) RedisScript.of(new ClassPathResource("scripts/plan_rate_limiter.lua"), List.class);
+        this.subscriptionClient = subscriptionClient;
+        this.redisTimeout = Duration.ofMillis(redisTimeoutMillis);
+        this.redisRetryMillis = redisRetryMillis;
+        this.interactive = new Limits(interactiveRate, interactiveBurst);
+        this.api = new Limits(apiRate, apiBurst);
+        this.anonymous = new Limits(anonymousRate, anonymousBurst);
+        this.maxBurstCapacity = maxBurstCapacity;
+        this.localBuckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Limits limits = limitsFor(id);
+        String key = "rate:" + routeId + ":" + id;
+        if (System.currentTimeMillis() < redisRetryAt.get()) {
+            return Mono.just(local(key, limits));
+        }
+        return redisTemplate.execute(script, List.of(key), List.of(Integer.toString(limits.replenishRate()),
+                        Integer.toString(limits.burstCapacity()), "1"))
+                .next()
+                .timeout(redisTimeout)
+                .map(result -> {
+                    long retryAt = redisRetryAt.get();
+                    if (retryAt != 0 && redisRetryAt.compareAndSet(retryAt, 0)) {
+                        log.info("Redis available again for rate limiting");
+                    }
+                    return response(result.get(0) == 1L, result.get(1), limits);
+                })
+                .onErrorResume(e -> {
+                    if (redisRetryAt.getAndSet(System.currentTimeMillis() + redisRetryMillis) == 0) {
+                        log.warn("Redis unavailable for rate limiting, using local buckets: {}", e.toString());
+                    }
+                    return Mono.just(local(key, limits));
+                });
+    }
+
+    private Limits limitsFor(String id) {
+        if (!id.startsWith(USER_KEY_PREFIX)) {
+            return anonymous;
+        }
+        Entitlements entitlements = subscriptionClient.current(id.substring(USER_KEY_PREFIX.length()));
+        Limits tier = entitlements.isApiAccess() ? api : interactive;
+        Integer monthlyQuota = entitlements.getMaxInvoicesPerMonth();
+        int dailyQuota = monthlyQuota == null ? maxBurstCapacity : (monthlyQuota + 29) / 30;
+        return new Limits(tier.replenishRate(),
+                Math.max(tier.burstCapacity(), Math.min(maxBurstCapacity, dailyQuota)));
+    }
+
+    private Response local(String key, Limits limits) {
+        LocalBucket bucket = localBuckets.get(key, k -> new LocalBucket(limits.burstCapacity()));
+        return bucket.tryTake(limits, System.nanoTime());
+    }
+
+    private static Response response(boolean allowed, long remaining, Limits limits) {
+        return new Response(allowed, Map.of(
+                REMAINING_HEADER, Long.toString(remaining),
+                REPLENISH_RATE_HEADER, Integer.toString(limits.replenishRate()),
+                BURST_CAPACITY_HEADER, Integer.toString(limits.burstCapacity())));
+    }
+
+    private record Limits(int replenishRate, int burstCapacity) {
+    }
+
+    private static final class LocalBucket {
+
+        private double tokens;
+        private long updatedAt;
+
+        private LocalBucket(int capacity) {
+            this.tokens = capacity;
+            this.updatedAt = System.nanoTime();
+        }
+
+        private synchronized Response tryTake(Limits limits, long now) {
+            tokens = Math.min(limits.burstCapacity(), tokens + (now - updatedAt) * limits.replenishRate() / 1e9);
+            updatedAt = now;
+            boolean allowed = tokens >= 1;
+            if (allowed) {
+                tokens -= 1;
+            }
+            return response(allowed, (long) tokens, limits);
+        }
+    }
+
+    /**
+     * Limits come from the plans, not from the route.
+     */
+    public static class Config {
+    }
+}
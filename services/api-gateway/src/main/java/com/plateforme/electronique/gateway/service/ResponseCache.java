@@ -0,0 +1,167 @@
+package com.plateforme.electronique.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.plateforme.electronique.gateway.dto.ResponseCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Responses of the routes using the {@code ResponseCache} filter, kept for a few seconds per user, and the
+ * upstream calls in progress for them, so that concurrent identical requests share one call.
+ *
+ * <p>Entries are grouped by scope and user, and each entry remembers the generation of its group when it was
+ * loaded. Invalidating a group only bumps its generation, whatever the size of the cache: the older entries of
+ * the group are no longer served and expire with their TTL.
+ */
+@Component
+public class ResponseCache {
+
+    /**
+     * Entry key: {@code target} is the raw path and query of the request.
+     */
+    public record Key(String scope, String user, String target) {
+    }
+
+    public record CachedResponse(int status, HttpHeaders headers, byte[] body, long storedAtMillis, Duration ttl) {
+    }
+
+    private record Group(String scope, String user) {
+    }
+
+    private record Entry(CachedResponse response, long generation) {
+    }
+
+    private record Load(Mono<CachedResponse> response, long generation) {
+    }
+
+    private final Cache<Key, Entry> entries;
+    private final Cache<Group, AtomicLong> generations;
+    private final Map<Key, Load> loads = new ConcurrentHashMap<>();
+    private final int maxEntryBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ResponseCache(@Value("${gateway.response-cache.maximum-bytes:67108864}") long maximumBytes,
+                         @Value("${gateway.response-cache.max-entry-bytes:262144}") int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> entry.response().body().length + key.target().length())
+                .expireAfter(new Expiry<Key, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Key key, Entry entry, long currentTime) {
+                        return entry.response().ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.response().ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(Key key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    public CachedResponse get(Key key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && entry.generation() != generation(key)) {
+            entries.asMap().remove(key, entry);
+            entry = null;
+        }
+        (entry != null ? hits : misses).increment();
+        return entry != null ? entry.response() : null;
+    }
+
+    /**
+     * Registers {@code load}, started while the group of the key was at the given generation, as the upstream
+     * call for the key, or returns the call already in progress. A call started before the group was last
+     * invalidated may answer with what the write replaced, so it is not joined: {@code load} takes its place.
+     */
+    public Mono<CachedResponse> join(Key key, Mono<CachedResponse> load, long generation) {
+        Load registered = new Load(load, generation);
+        Load current = loads.compute(key, (k, existing) ->
+                existing != null && existing.generation() >= generation ? existing : registered);
+        if (current == registered) {
+            upstreamCalls.increment();
+            return null;
+        }
+        coalesced.increment();
+        return current.response();
+    }
+
+    public void leave(Key key, Mono<CachedResponse> load) {
+        loads.computeIfPresent(key, (k, existing) -> existing.response() == load ? null : existing);
+    }
+
+    /**
+     * Largest body stored; larger responses are streamed to the client without being kept.
+     */
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public long generation(Key key) {
+        return group(key.scope(), key.user()).get();
+    }
+
+    /**
+     * Stores a response loaded while the group of the key was at the given generation, unless the group was
+     * invalidated in the meantime or the body is larger than {@code max-entry-bytes}. A response stored just
+     * as the group is invalidated carries the old generation and is never served.
+     */
+    public void store(Key key, CachedResponse response, long generation) {
+        if (response.body().length > maxEntryBytes || response.ttl().isZero() || generation(key) != generation) {
+            return;
+        }
+        entries.put(key, new Entry(response, generation));
+        stored.increment();
+    }
+
+    /**
+     * Stops serving the responses cached for the user in the scope.
+     */
+    public void invalidate(String scope, String user) {
+        group(scope, user).incrementAndGet();
+        invalidations.increment();
+    }
+
+    public ResponseCacheStats stats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        long saved = hitCount + coalesced.sum();
+        return new ResponseCacheStats(entries.estimatedSize(), hitCount, misses.sum(), coalesced.sum(),
+                upstreamCalls.sum(), saved, stored.sum(), invalidations.sum(),
+                lookups == 0 ? 0 : (double) hitCount / lookups,
+                saved + upstreamCalls.sum() == 0 ? 0 : (double) saved / (saved + upstreamCalls.sum()));
+    }
+
+    /**
+     * Generations start from the monotonic clock, so a group dropped from {@code generations} and created
+     * again never gets back a value that entries still in the cache were stored with.
+     */
+    private AtomicLong group(String scope, String user) {
+        return generations.get(new Group(scope, user), group -> new AtomicLong(System.nanoTime()));
+    }
+}
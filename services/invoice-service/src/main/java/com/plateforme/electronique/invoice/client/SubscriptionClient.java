@@ -0,0 +1,78 @@
+package com.plateforme.electronique.invoice.client;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.plateforme.electronique.invoice.dto.Entitlements;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Entitlements of users, cached and refreshed in the background so that creating an invoice does not call
+ * subscription-service. When it cannot answer, a refresh keeps the entitlements already known and a user
+ * seen for the first time is treated as unlimited until the next refresh, rather than being blocked.
+ */
+@Component
+@Slf4j
+public class SubscriptionClient {
+
+    private final LoadingCache<UUID, Entitlements> entitlements;
+
+    public SubscriptionClient(RestClient.Builder restClientBuilder,
+                              @Value("${invoice.subscription-service.url:http://subscription-service}") String baseUrl,
+                              @Value("${invoice.subscription-service.timeout-millis:1000}") long timeoutMillis,
+                              @Value("${invoice.subscription-service.refresh-seconds:60}") long refreshSeconds,
+                              @Value("${invoice.subscription-service.maximum-size:100000}") long maximumSize) {
+        RestClient restClient = restClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(Duration.ofMillis(timeoutMillis))
+                        .withReadTimeout(Duration.ofMillis(timeoutMillis))))
+                .build();
+        this.entitlements = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .expireAfterWrite(Duration.ofSeconds(refreshSeconds * 10))
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Entitlements load(UUID userId) {
+                        Entitlements loaded = fetch(restClient, userId);
+                        return loaded != null ? loaded : Entitlements.UNKNOWN;
+                    }
+
+                    @Override
+                    public Entitlements reload(UUID userId, Entitlements previous) {
+                        Entitlements loaded = fetch(restClient, userId);
+                        return loaded != null ? loaded : previous;
+                    }
+                });
+    }
+
+    /**
+     * Monthly invoice allowance of the user, {@code null} when unlimited or unknown.
+     */
+    public Integer maxInvoicesPerMonth(UUID userId) {
+        return entitlements.get(userId).getMaxInvoicesPerMonth();
+    }
+
+    private static Entitlements fetch(RestClient restClient, UUID userId) {
+        try {
+            return restClient.get()
+                    .uri("/internal/subscriptions/users/{userId}/entitlements", userId)
+                    .retrieve()
+                    .body(Entitlements.class);
+        } catch (RestClientException | IllegalStateException e) {
+            // IllegalStateException: the load balancer has no instance of subscription-service
+            log.warn("Entitlements of user {} unavailable: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.plateforme.electronique.invoice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class PdfRenderingConfig implements WebMvcConfigurer {
+
+    private final int renderThreads;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    public PdfRenderingConfig(@Value("${invoice.pdf.render-threads:0}") int renderThreads,
+                              @Value("${invoice.pdf.queue-capacity:100}") int queueCapacity,
+                              @Value("${invoice.pdf.timeout-millis:60000}") long timeoutMillis) {
+        this.renderThreads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Streaming responses (PDF rendering) run on this bounded pool instead of the Tomcat request threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pdfRenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(renderThreads);
+        executor.setMaxPoolSize(renderThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("pdf-render-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(pdfRenderExecutor());
+        configurer.setDefaultTimeout(timeoutMillis);
+    }
+}
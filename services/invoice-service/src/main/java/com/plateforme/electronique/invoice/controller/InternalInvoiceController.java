@@ -0,0 +1,98 @@
+package com.plateforme.electronique.invoice.controller;
+
+import com.plateforme.electronique.invoice.dto.OverdueInvoice;
+import com.plateforme.electronique.invoice.dto.RecordSealsRequest;
+import com.plateforme.electronique.invoice.dto.RecordSignatureRequest;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import com.plateforme.electronique.invoice.service.InvoicePdfCache;
+import com.plateforme.electronique.invoice.service.InvoiceService;
+import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Endpoints for the other services. They are not routed by the gateway.
+ */
+@RestController
+@RequestMapping("/internal/invoices")
+public class InternalInvoiceController {
+
+    private static final LocalDate FIRST_DUE_DATE = LocalDate.of(1, 1, 1);
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceService invoiceService;
+    private final InvoicePdfCache pdfCache;
+
+    public InternalInvoiceController(InvoiceRepository invoiceRepository,
+                                     InvoiceService invoiceService,
+                                     InvoicePdfCache pdfCache) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceService = invoiceService;
+        this.pdfCache = pdfCache;
+    }
+
+    /**
+     * Overdue invoices of one of the {@link InvoiceRepository#SCAN_BUCKETS} scan buckets, in keyset pages.
+     */
+    @GetMapping("/overdue")
+    public ResponseEntity<List<OverdueInvoice>> overdue(
+            @RequestParam Invoice.Status status,
+            @RequestParam int bucket,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueBefore,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDueDate,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        if (bucket < 0 || bucket >= InvoiceRepository.SCAN_BUCKETS) {
+            throw new IllegalArgumentException("Invalid scan bucket " + bucket);
+        }
+        return ResponseEntity.ok(invoiceRepository.findOverdue(status.name(), bucket, dueBefore,
+                afterDueDate != null ? afterDueDate : FIRST_DUE_DATE,
+                afterId != null ? afterId : FIRST_ID,
+                Math.max(1, Math.min(limit, 5000))));
+    }
+
+    /**
+     * Rendered PDF of a validated invoice, for signature-service. Served from the PDF cache; a miss is
+     * rendered on the PDF pool like the public endpoint.
+     */
+    @GetMapping("/{id}/pdf")
+    public ResponseEntity<?> pdf(@PathVariable UUID id) {
+        Invoice invoice = invoiceRepository.findWithItemsById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+        if (!InvoicePdfCache.isCacheable(invoice)) {
+            throw new IllegalStateException("Drafts cannot be signed");
+        }
+        String hash = pdfCache.contentHash(invoice);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_PDF);
+        Path file = pdfCache.cachedFile(id, hash).orElse(null);
+        if (file != null) {
+            return response.body(new FileSystemResource(file));
+        }
+        StreamingResponseBody body = out -> pdfCache.write(invoice, hash, out);
+        return response.body(body);
+    }
+
+    @PutMapping("/{id}/signature")
+    public ResponseEntity<Void> recordSignature(@PathVariable UUID id,
+                                                @Valid @RequestBody RecordSignatureRequest request) {
+        invoiceService.recordSignature(id, request.getSignatureHash());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PutMapping("/seals")
+    public ResponseEntity<Map<String, Integer>> recordSeals(@Valid @RequestBody RecordSealsRequest request) {
+        return ResponseEntity.ok(Map.of("updated", invoiceService.recordSeals(request.getSeals())));
+    }
+}
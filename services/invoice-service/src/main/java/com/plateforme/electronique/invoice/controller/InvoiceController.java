@@ -1,83 +1,201 @@
 package com.plateforme.electronique.invoice.controller;
 
+import com.plateforme.electronique.invoice.dto.BulkImportResult;
 import com.plateforme.electronique.invoice.dto.CreateInvoiceRequest;
+import com.plateforme.electronique.invoice.dto.InvoiceCursorPage;
+import com.plateforme.electronique.invoice.dto.InvoiceItemsPatchResult;
+import com.plateforme.electronique.invoice.dto.InvoiceSummary;
+import com.plateforme.electronique.invoice.dto.InvoiceVersionConflict;
+import com.plateforme.electronique.invoice.dto.PatchInvoiceItemsRequest;
 import com.plateforme.electronique.invoice.entity.Invoice;
 import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import com.plateforme.electronique.invoice.service.InvoiceBulkImportService;
+import com.plateforme.electronique.invoice.service.InvoicePdfCache;
+import com.plateforme.electronique.invoice.service.InvoicePdfRenderer;
 import com.plateforme.electronique.invoice.service.InvoiceService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/invoices")
 public class InvoiceController {
 
+    /**
+     * Id of the authenticated user, set by the gateway from the verified token.
+     */
+    static final String USER_ID_HEADER = "X-User-Id";
+
     private final InvoiceService invoiceService;
     private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfRenderer pdfRenderer;
+    private final InvoicePdfCache pdfCache;
+    private final InvoiceBulkImportService bulkImportService;
 
-    public InvoiceController(InvoiceService invoiceService, InvoiceRepository invoiceRepository) {
+    public InvoiceController(InvoiceService invoiceService,
+                             InvoiceRepository invoiceRepository,
+                             InvoicePdfRenderer pdfRenderer,
+                             InvoicePdfCache pdfCache,
+                             InvoiceBulkImportService bulkImportService) {
         this.invoiceService = invoiceService;
         this.invoiceRepository = invoiceRepository;
+        this.pdfRenderer = pdfRenderer;
+        this.pdfCache = pdfCache;
+        this.bulkImportService = bulkImportService;
     }
 
     @PostMapping
-    public ResponseEntity<Invoice> create(@Valid @RequestBody CreateInvoiceRequest request) {
+    public ResponseEntity<Invoice> create(@RequestHeader(USER_ID_HEADER) UUID ownerUserId,
+                                          @Valid @RequestBody CreateInvoiceRequest request) {
+        request.setOwnerUserId(ownerUserId);
         return ResponseEntity.ok(invoiceService.createInvoice(request));
     }
 
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    public ResponseEntity<BulkImportResult> bulkImport(@RequestHeader(USER_ID_HEADER) UUID ownerUserId,
+                                                       InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importNdjson(body, ownerUserId));
+    }
+
     @GetMapping
-    public ResponseEntity<Page<Invoice>> list(@RequestParam UUID ownerUserId, Pageable pageable) {
-        return ResponseEntity.ok(invoiceRepository.findByOwnerUserId(ownerUserId, pageable));
+    public ResponseEntity<Page<InvoiceSummary>> list(@RequestHeader(USER_ID_HEADER) UUID ownerUserId, Pageable pageable) {
+        return ResponseEntity.ok(invoiceRepository.findSummariesByOwnerUserId(ownerUserId, pageable));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<InvoiceCursorPage> scroll(@RequestHeader(USER_ID_HEADER) UUID ownerUserId,
+                                                    @RequestParam(required = false) Invoice.Status status,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(invoiceService.listInvoices(ownerUserId, status, cursor, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Invoice> detail(@PathVariable UUID id, @RequestParam UUID ownerUserId) {
-        return ResponseEntity.of(invoiceRepository.findByIdAndOwnerUserId(id, ownerUserId));
+    public ResponseEntity<Invoice> detail(@PathVariable UUID id, @RequestHeader(USER_ID_HEADER) UUID ownerUserId) {
+        return ResponseEntity.of(invoiceRepository.findWithItemsByIdAndOwnerUserId(id, ownerUserId));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Invoice> update(@PathVariable UUID id,
-                                          @RequestParam UUID ownerUserId,
+                                          @RequestHeader(USER_ID_HEADER) UUID ownerUserId,
                                           @Valid @RequestBody CreateInvoiceRequest request) {
         return ResponseEntity.ok(invoiceService.updateDraft(id, ownerUserId, request));
     }
 
+    @PatchMapping("/{id}/items")
+    public ResponseEntity<InvoiceItemsPatchResult> patchItems(@PathVariable UUID id,
+                                                              @RequestHeader(USER_ID_HEADER) UUID ownerUserId,
+                                                              @Valid @RequestBody PatchInvoiceItemsRequest request) {
+        return ResponseEntity.ok(invoiceService.patchItems(id, ownerUserId, request));
+    }
+
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable UUID id, @RequestParam UUID ownerUserId) {
+    public ResponseEntity<Void> delete(@PathVariable UUID id, @RequestHeader(USER_ID_HEADER) UUID ownerUserId) {
         invoiceService.deleteDraft(id, ownerUserId);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/{id}/validate")
-    public ResponseEntity<Invoice> validate(@PathVariable UUID id, @RequestParam UUID ownerUserId) {
+    public ResponseEntity<Invoice> validate(@PathVariable UUID id, @RequestHeader(USER_ID_HEADER) UUID ownerUserId) {
         return ResponseEntity.ok(invoiceService.validateInvoice(id, ownerUserId));
     }
 
     @PostMapping("/{id}/send")
-    public ResponseEntity<Invoice> send(@PathVariable UUID id, @RequestParam UUID ownerUserId) {
+    public ResponseEntity<Invoice> send(@PathVariable UUID id, @RequestHeader(USER_ID_HEADER) UUID ownerUserId) {
         return ResponseEntity.ok(invoiceService.sendInvoice(id, ownerUserId));
     }
 
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<Invoice> cancel(@PathVariable UUID id, @RequestParam UUID ownerUserId) {
+    public ResponseEntity<Invoice> cancel(@PathVariable UUID id, @RequestHeader(USER_ID_HEADER) UUID ownerUserId) {
         return ResponseEntity.ok(invoiceService.cancelInvoice(id, ownerUserId));
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> pdf(@PathVariable UUID id, @RequestParam UUID ownerUserId) {
-        Invoice invoice = invoiceRepository.findByIdAndOwnerUserId(id, ownerUserId)
+    public ResponseEntity<?> pdf(@PathVariable UUID id,
+                                 @RequestHeader(USER_ID_HEADER) UUID ownerUserId,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        Invoice invoice = invoiceRepository.findWithItemsByIdAndOwnerUserId(id, ownerUserId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
-        String content = "PDF placeholder for invoice " + invoice.getInvoiceNumber();
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice.pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .body(content.getBytes(StandardCharsets.UTF_8));
+        String filename = invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : invoice.getId().toString();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename + ".pdf");
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        if (!InvoicePdfCache.isCacheable(invoice)) {
+            StreamingResponseBody body = out -> pdfRenderer.render(invoice, out);
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+
+        String hash = pdfCache.contentHash(invoice);
+        String etag = "\"" + hash + "\"";
+        headers.setETag(etag);
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        // Handles lists of tags, "*" and weak validators in If-None-Match.
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        byte[] cached = pdfCache.fromMemory(id, hash).orElse(null);
+        if (cached != null) {
+            return ResponseEntity.ok().headers(headers).body(cached);
+        }
+        Path file = pdfCache.cachedFile(id, hash).orElse(null);
+        if (file == null) {
+            // Rendered on the PDF pool, which fills the cache for the next requests.
+            StreamingResponseBody body = out -> pdfCache.write(invoice, hash, out);
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            long length = Files.size(file);
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", length);
+            headers.setContentLength(length);
+            return ResponseEntity.ok().headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(new FileSystemResource(file));
+    }
+
+    /**
+     * The invoice changed since the client read it, or concurrently with this request: answers 409 with the
+     * current version so that the client can reload the invoice and retry.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<InvoiceVersionConflict> versionConflict(ObjectOptimisticLockingFailureException e,
+                                                                  HttpServletRequest request) {
+        boolean invoice = Invoice.class.getName().equals(e.getPersistentClassName());
+        UUID id = invoice && e.getIdentifier() instanceof UUID invoiceId ? invoiceId : pathId(request);
+        Long currentVersion = id == null ? null
+                : invoiceRepository.findById(id).map(Invoice::getVersion).orElse(null);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new InvoiceVersionConflict(id, currentVersion,
+                        "Invoice was modified concurrently, reload it and retry"));
+    }
+
+    private static UUID pathId(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variables == null ? null : variables.get("id");
+        return id == null ? null : UUID.fromString(id);
     }
 }
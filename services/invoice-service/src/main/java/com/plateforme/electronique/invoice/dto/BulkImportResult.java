@@ -0,0 +1,29 @@
+package com.plateforme.electronique.invoice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BulkImportResult {
+    private int imported;
+    private int failed;
+    private List<LineError> errors = new ArrayList<>();
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(long line, String message) {
+        failed++;
+        errors.add(new LineError(line, message));
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private String message;
+    }
+}
@@ -3,7 +3,6 @@ package com.plateforme.electronique.invoice.dto;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
-import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -13,7 +12,9 @@ import java.util.UUID;
 @Data
 public class CreateInvoiceRequest {
 
-    @NotNull
+    /**
+     * Set from the authenticated user; a value sent in the body is ignored.
+     */
     private UUID ownerUserId;
 
     @NotBlank
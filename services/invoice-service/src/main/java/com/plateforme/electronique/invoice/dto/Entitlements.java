@@ -0,0 +1,25 @@
+package com.plateforme.electronique.invoice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Plan features of a user, as served by subscription-service; only what this service enforces.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Entitlements {
+
+    /**
+     * Applied while subscription-service cannot be reached: nothing is enforced.
+     */
+    public static final Entitlements UNKNOWN = new Entitlements(null, null);
+
+    private String plan;
+    /**
+     * {@code null} when the plan is unlimited.
+     */
+    private Integer maxInvoicesPerMonth;
+}
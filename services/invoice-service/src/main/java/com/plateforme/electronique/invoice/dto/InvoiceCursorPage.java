@@ -0,0 +1,13 @@
+package com.plateforme.electronique.invoice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class InvoiceCursorPage {
+    private List<InvoiceSummary> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
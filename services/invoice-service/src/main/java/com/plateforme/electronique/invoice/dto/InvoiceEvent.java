@@ -0,0 +1,37 @@
+package com.plateforme.electronique.invoice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Snapshot of an invoice carried by lifecycle events.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceEvent {
+    private UUID invoiceId;
+    private UUID ownerUserId;
+    private String invoiceNumber;
+    private String status;
+    /**
+     * Status before the change that raised the event.
+     */
+    private String previousStatus;
+    private String clientName;
+    private String clientEmail;
+    private BigDecimal totalTtc;
+    private LocalDate issueDate;
+    private LocalDate dueDate;
+    /**
+     * {@link com.plateforme.electronique.invoice.service.InvoiceContentDigest} of the invoice, on
+     * invoice.validated events only.
+     */
+    private String contentHash;
+}
@@ -0,0 +1,20 @@
+package com.plateforme.electronique.invoice.dto;
+
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+public class InvoiceItemsPatchResult {
+    private UUID id;
+    private long version;
+    private BigDecimal subtotalHt;
+    private BigDecimal vatAmount;
+    private BigDecimal totalTtc;
+    private List<InvoiceItem> added;
+    private List<InvoiceItem> updated;
+}
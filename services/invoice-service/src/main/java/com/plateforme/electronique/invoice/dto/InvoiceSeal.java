@@ -0,0 +1,26 @@
+package com.plateforme.electronique.invoice.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.UUID;
+
+/**
+ * Merkle seal of an invoice: the sealed leaf hash and the self-contained inclusion proof.
+ */
+@Data
+public class InvoiceSeal {
+
+    @NotNull
+    private UUID invoiceId;
+
+    @NotBlank
+    @Size(max = 64)
+    @JsonAlias("signatureHash")
+    private String leafHash;
+
+    @NotBlank
+    private String sealProof;
+}
@@ -0,0 +1,28 @@
+package com.plateforme.electronique.invoice.dto;
+
+import com.plateforme.electronique.invoice.entity.Invoice;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSummary {
+    private UUID id;
+    private String invoiceNumber;
+    private String clientName;
+    private String clientEmail;
+    private BigDecimal subtotalHt;
+    private BigDecimal vatRate;
+    private BigDecimal vatAmount;
+    private BigDecimal totalTtc;
+    private Invoice.Status status;
+    private LocalDate issueDate;
+    private LocalDate dueDate;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.plateforme.electronique.invoice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.UUID;
+
+/**
+ * Body of a 409 answer: the invoice changed since the client read it. The client reloads it and retries
+ * with {@code currentVersion}.
+ */
+@Data
+@AllArgsConstructor
+public class InvoiceVersionConflict {
+    private UUID id;
+    private Long currentVersion;
+    private String message;
+}
@@ -0,0 +1,21 @@
+package com.plateforme.electronique.invoice.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Envelope delivered to subscribers. The payload is the JSON stored in the outbox, passed through as is.
+ */
+@Data
+@AllArgsConstructor
+public class OutboxMessage {
+    private long id;
+    private String type;
+    private UUID aggregateId;
+    private LocalDateTime occurredAt;
+    @JsonRawValue
+    private String payload;
+}
@@ -0,0 +1,23 @@
+package com.plateforme.electronique.invoice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface OverdueInvoice {
+    UUID getId();
+
+    String getInvoiceNumber();
+
+    UUID getOwnerUserId();
+
+    String getClientName();
+
+    String getClientEmail();
+
+    BigDecimal getTotalTtc();
+
+    LocalDate getDueDate();
+
+    String getStatus();
+}
@@ -0,0 +1,23 @@
+package com.plateforme.electronique.invoice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class PatchInvoiceItemsRequest {
+
+    @NotNull
+    private Long version;
+
+    @Valid
+    private List<CreateInvoiceItemRequest> add = new ArrayList<>();
+
+    @Valid
+    private List<UpdateInvoiceItemRequest> update = new ArrayList<>();
+
+    private List<UUID> remove = new ArrayList<>();
+}
@@ -0,0 +1,14 @@
+package com.plateforme.electronique.invoice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class RecordSealsRequest {
+
+    @NotEmpty
+    @Valid
+    private List<InvoiceSeal> seals;
+}
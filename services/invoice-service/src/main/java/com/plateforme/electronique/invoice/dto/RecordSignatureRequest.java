@@ -0,0 +1,13 @@
+package com.plateforme.electronique.invoice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class RecordSignatureRequest {
+
+    @NotBlank
+    @Size(max = 255)
+    private String signatureHash;
+}
@@ -0,0 +1,25 @@
+package com.plateforme.electronique.invoice.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+public class UpdateInvoiceItemRequest {
+
+    @NotNull
+    private UUID id;
+
+    private String description;
+
+    @DecimalMin(value = "0.001")
+    private BigDecimal quantity;
+
+    @DecimalMin(value = "0.0", inclusive = false)
+    private BigDecimal unitPrice;
+
+    @DecimalMin(value = "0.0")
+    private BigDecimal taxRate;
+}
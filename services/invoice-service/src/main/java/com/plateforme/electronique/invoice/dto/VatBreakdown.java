@@ -0,0 +1,13 @@
+package com.plateforme.electronique.invoice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+public class VatBreakdown {
+    private BigDecimal rate;
+    private BigDecimal baseHt;
+    private BigDecimal vatAmount;
+}
@@ -1,5 +1,6 @@
 package com.plateforme.electronique.invoice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -7,14 +8,17 @@ import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Entity
+// The unique index on invoice_number is created by schema.sql.
 @Table(name = "invoices", indexes = {
-    @Index(name = "idx_invoice_number", columnList = "invoiceNumber"),
-    @Index(name = "idx_invoice_status", columnList = "status"),
-    @Index(name = "idx_invoice_owner", columnList = "ownerUserId")
+    @Index(name = "idx_invoice_owner", columnList = "ownerUserId"),
+    @Index(name = "idx_invoice_owner_created", columnList = "ownerUserId, createdAt, id"),
+    @Index(name = "idx_invoice_owner_status_created", columnList = "ownerUserId, status, createdAt, id")
 })
 @Data
 @NoArgsConstructor
@@ -67,9 +71,24 @@ public class Invoice {
     @Column(name = "due_date")
     private LocalDate dueDate;
 
+    /**
+     * SHA-256 of the signed PDF, recorded by signature-service.
+     */
     @Column(name = "signature_hash", length = 255)
     private String signatureHash;
 
+    /**
+     * Merkle leaf hash of the invoice in its batch seal.
+     */
+    @Column(name = "seal_leaf_hash", length = 64)
+    private String sealLeafHash;
+
+    /**
+     * Merkle inclusion proof of the batch seal covering this invoice, as JSON.
+     */
+    @Column(name = "seal_proof", columnDefinition = "text")
+    private String sealProof;
+
     @Column(name = "created_at", nullable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -77,10 +96,30 @@ public class Invoice {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    /**
+     * Left null on new invoices, which is how Spring Data tells them apart: {@code save} then persists them
+     * instead of merging. Hibernate sets it to 0 on insert.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<InvoiceItem> items;
 
+    /**
+     * Sum of the line totals per tax rate, kept up to date by item patches so that they never sum the lines
+     * again. Empty on invoices created before it was stored, until their first patch.
+     */
+    @ElementCollection
+    @CollectionTable(name = "invoice_vat_bases", joinColumns = @JoinColumn(name = "invoice_id"))
+    @MapKeyColumn(name = "rate", precision = 5, scale = 2)
+    @Column(name = "base_ht", precision = 15, scale = 4, nullable = false)
+    @Builder.Default
+    @JsonIgnore
+    private Map<BigDecimal, BigDecimal> vatBases = new HashMap<>();
+
     public enum Status {
         DRAFT,
         VALIDATED,
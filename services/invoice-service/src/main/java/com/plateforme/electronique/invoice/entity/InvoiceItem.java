@@ -48,9 +48,4 @@ public class InvoiceItem {
 
     @Column(name = "line_total_ht", precision = 15, scale = 4)
     private BigDecimal lineTotalHt;
-
-    @Transient
-    public BigDecimal computeLineTotalHt() {
-        return unitPrice.multiply(quantity).setScale(4, java.math.RoundingMode.HALF_UP);
-    }
 }
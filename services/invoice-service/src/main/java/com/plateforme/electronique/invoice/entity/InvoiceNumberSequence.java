@@ -0,0 +1,20 @@
+package com.plateforme.electronique.invoice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "invoice_number_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoiceNumberSequence {
+
+    @Id
+    @Column(name = "sequence_year")
+    private Integer year;
+
+    @Column(name = "last_value", nullable = false)
+    private long lastValue;
+}
@@ -0,0 +1,27 @@
+package com.plateforme.electronique.invoice.repository;
+
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InvoiceItemRepository extends JpaRepository<InvoiceItem, UUID> {
+
+    List<InvoiceItem> findByInvoiceIdAndIdIn(UUID invoiceId, Collection<UUID> ids);
+
+    @Query("select i.taxRate as rate, sum(i.lineTotalHt) as base from InvoiceItem i "
+            + "where i.invoice.id = :invoiceId group by i.taxRate")
+    List<RateBase> sumLineTotalsByRate(@Param("invoiceId") UUID invoiceId);
+
+    interface RateBase {
+        BigDecimal getRate();
+
+        BigDecimal getBase();
+    }
+}
@@ -0,0 +1,32 @@
+package com.plateforme.electronique.invoice.repository;
+
+import com.plateforme.electronique.invoice.entity.InvoiceNumberSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface InvoiceNumberSequenceRepository extends JpaRepository<InvoiceNumberSequence, Integer> {
+
+    /**
+     * Increments the counter of the given year and returns the new value. The updated row stays locked
+     * until the surrounding transaction ends, so numbers are handed out without gaps or duplicates.
+     */
+    @Query(value = "UPDATE invoice_number_sequences SET last_value = last_value + 1 "
+            + "WHERE sequence_year = :year RETURNING last_value", nativeQuery = true)
+    Optional<Long> increment(@Param("year") int year);
+
+    /**
+     * Creates the counter of a new year, starting after the highest number already issued with the given
+     * prefix so that numbers allocated before the sequence table existed are never reused.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO invoice_number_sequences (sequence_year, last_value) "
+            + "SELECT :year, COALESCE(MAX(CAST(SUBSTRING(invoice_number FROM :offset) AS BIGINT)), 0) "
+            + "FROM invoices WHERE invoice_number LIKE :pattern "
+            + "ON CONFLICT (sequence_year) DO NOTHING", nativeQuery = true)
+    int initialize(@Param("year") int year, @Param("pattern") String pattern, @Param("offset") int offset);
+}
@@ -1,16 +1,121 @@
 package com.plateforme.electronique.invoice.repository;
 
+import com.plateforme.electronique.invoice.dto.InvoiceSummary;
+import com.plateforme.electronique.invoice.dto.OverdueInvoice;
 import com.plateforme.electronique.invoice.entity.Invoice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
-    Page<Invoice> findByOwnerUserId(UUID ownerUserId, Pageable pageable);
+
+    @Query(value = "select new com.plateforme.electronique.invoice.dto.InvoiceSummary("
+            + "i.id, i.invoiceNumber, i.clientName, i.clientEmail, i.subtotalHt, i.vatRate, i.vatAmount, "
+            + "i.totalTtc, i.status, i.issueDate, i.dueDate, i.createdAt) "
+            + "from Invoice i where i.ownerUserId = :ownerUserId",
+            countQuery = "select count(i) from Invoice i where i.ownerUserId = :ownerUserId")
+    Page<InvoiceSummary> findSummariesByOwnerUserId(@Param("ownerUserId") UUID ownerUserId, Pageable pageable);
+
+    // Keyset pages come in two variants, with and without a status filter, each served by its own index:
+    // (owner_user_id, created_at, id) and (owner_user_id, status, created_at, id). A single query with an
+    // optional filter would scan the first index and discard the rows of other statuses.
+    @Query("select new com.plateforme.electronique.invoice.dto.InvoiceSummary("
+            + "i.id, i.invoiceNumber, i.clientName, i.clientEmail, i.subtotalHt, i.vatRate, i.vatAmount, "
+            + "i.totalTtc, i.status, i.issueDate, i.dueDate, i.createdAt) "
+            + "from Invoice i where i.ownerUserId = :ownerUserId "
+            + "order by i.createdAt desc, i.id desc")
+    List<InvoiceSummary> findFirstSummaries(@Param("ownerUserId") UUID ownerUserId, Limit limit);
+
+    @Query("select new com.plateforme.electronique.invoice.dto.InvoiceSummary("
+            + "i.id, i.invoiceNumber, i.clientName, i.clientEmail, i.subtotalHt, i.vatRate, i.vatAmount, "
+            + "i.totalTtc, i.status, i.issueDate, i.dueDate, i.createdAt) "
+            + "from Invoice i where i.ownerUserId = :ownerUserId and i.status = :status "
+            + "order by i.createdAt desc, i.id desc")
+    List<InvoiceSummary> findFirstSummariesByStatus(@Param("ownerUserId") UUID ownerUserId,
+                                                    @Param("status") Invoice.Status status,
+                                                    Limit limit);
+
+    // "createdAt <= :createdAt" is redundant with the OR below but lets the planner seek the index directly
+    // to the cursor position.
+    @Query("select new com.plateforme.electronique.invoice.dto.InvoiceSummary("
+            + "i.id, i.invoiceNumber, i.clientName, i.clientEmail, i.subtotalHt, i.vatRate, i.vatAmount, "
+            + "i.totalTtc, i.status, i.issueDate, i.dueDate, i.createdAt) "
+            + "from Invoice i where i.ownerUserId = :ownerUserId "
+            + "and i.createdAt <= :createdAt and (i.createdAt < :createdAt or i.id < :id) "
+            + "order by i.createdAt desc, i.id desc")
+    List<InvoiceSummary> findSummariesAfter(@Param("ownerUserId") UUID ownerUserId,
+                                            @Param("createdAt") LocalDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            Limit limit);
+
+    @Query("select new com.plateforme.electronique.invoice.dto.InvoiceSummary("
+            + "i.id, i.invoiceNumber, i.clientName, i.clientEmail, i.subtotalHt, i.vatRate, i.vatAmount, "
+            + "i.totalTtc, i.status, i.issueDate, i.dueDate, i.createdAt) "
+            + "from Invoice i where i.ownerUserId = :ownerUserId and i.status = :status "
+            + "and i.createdAt <= :createdAt and (i.createdAt < :createdAt or i.id < :id) "
+            + "order by i.createdAt desc, i.id desc")
+    List<InvoiceSummary> findSummariesByStatusAfter(@Param("ownerUserId") UUID ownerUserId,
+                                                    @Param("status") Invoice.Status status,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") UUID id,
+                                                    Limit limit);
+
     Optional<Invoice> findByIdAndOwnerUserId(UUID id, UUID ownerUserId);
+
+    /**
+     * Deletes the invoice with its lines and tax bases if it is still a draft of the owner, in one statement,
+     * and returns the number of invoices deleted. Of two concurrent calls, the second waits for the first and
+     * deletes nothing.
+     */
+    @Query(value = "WITH draft AS (DELETE FROM invoices WHERE id = :id AND owner_user_id = :ownerUserId "
+            + "AND status = 'DRAFT' RETURNING id), "
+            + "items AS (DELETE FROM invoice_items WHERE invoice_id IN (SELECT id FROM draft)), "
+            + "bases AS (DELETE FROM invoice_vat_bases WHERE invoice_id IN (SELECT id FROM draft)) "
+            + "SELECT count(*) FROM draft", nativeQuery = true)
+    long deleteDraft(@Param("id") UUID id, @Param("ownerUserId") UUID ownerUserId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Invoice> findWithItemsByIdAndOwnerUserId(UUID id, UUID ownerUserId);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Invoice> findWithItemsById(UUID id);
+
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
+
+    long countByOwnerUserIdAndCreatedAtGreaterThanEqual(UUID ownerUserId, LocalDateTime createdAt);
+
+    /**
+     * Number of values of the stored {@code scan_bucket} column (see schema.sql).
+     */
+    int SCAN_BUCKETS = 64;
+
+    /**
+     * Keyset page of the invoices of one status and scan bucket that fell due before {@code dueBefore},
+     * following (afterDueDate, afterId). The bucket leads the covering (status, scan_bucket, due_date, id)
+     * index, so a page is one index-only range scan and scanners of different buckets never read each
+     * other's rows.
+     */
+    @Query(value = "SELECT id, invoice_number AS invoiceNumber, owner_user_id AS ownerUserId, "
+            + "client_name AS clientName, client_email AS clientEmail, total_ttc AS totalTtc, "
+            + "due_date AS dueDate, status FROM invoices "
+            + "WHERE status = :status AND scan_bucket = :bucket AND due_date < :dueBefore "
+            + "AND (due_date, id) > (:afterDueDate, :afterId) "
+            + "ORDER BY due_date, id LIMIT :limit", nativeQuery = true)
+    List<OverdueInvoice> findOverdue(@Param("status") String status,
+                                     @Param("bucket") int bucket,
+                                     @Param("dueBefore") LocalDate dueBefore,
+                                     @Param("afterDueDate") LocalDate afterDueDate,
+                                     @Param("afterId") UUID afterId,
+                                     @Param("limit") int limit);
 }
@@ -0,0 +1,44 @@
+package com.plateforme.electronique.invoice.repository;
+
+import com.plateforme.electronique.invoice.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Leases the oldest events of the subscriber that are due by pushing their {@code available_at} to
+     * {@code leaseUntil}. Rows locked by another relay instance are skipped, and the locks are released when
+     * the claiming transaction commits, before any delivery: a relay that dies mid-delivery only delays its
+     * batch until the lease expires.
+     */
+    @Transactional
+    @Query(value = "UPDATE outbox_events SET available_at = :leaseUntil WHERE id IN ("
+            + "SELECT id FROM outbox_events WHERE subscriber = :subscriber AND available_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<OutboxEvent> claimBatch(@Param("subscriber") String subscriber, @Param("now") LocalDateTime now,
+                                 @Param("leaseUntil") LocalDateTime leaseUntil, @Param("limit") int limit);
+
+    /**
+     * Replaces the events queued before each subscriber had its own rows ({@code subscriber} is null) with
+     * one row per subscriber of the comma-separated list. Deleting and inserting in one statement keeps
+     * instances that start together from copying the same rows twice.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "WITH legacy AS (DELETE FROM outbox_events WHERE subscriber IS NULL RETURNING *) "
+            + "INSERT INTO outbox_events (subscriber, event_type, aggregate_id, payload, occurred_at, available_at, "
+            + "attempts, last_error) "
+            + "SELECT s.subscriber, l.event_type, l.aggregate_id, l.payload, l.occurred_at, l.available_at, "
+            + "l.attempts, l.last_error "
+            + "FROM legacy l CROSS JOIN unnest(string_to_array(:subscribers, ',')) AS s(subscriber) "
+            + "ORDER BY l.id", nativeQuery = true)
+    int fanOutUnassigned(@Param("subscribers") String subscribers);
+}
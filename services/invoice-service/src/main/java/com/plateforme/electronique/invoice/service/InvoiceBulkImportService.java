@@ -0,0 +1,139 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateforme.electronique.invoice.dto.BulkImportResult;
+import com.plateforme.electronique.invoice.dto.CreateInvoiceRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports invoices from an NDJSON stream (one {@link CreateInvoiceRequest} per line). Records are persisted in
+ * chunks, one transaction each, so that Hibernate can batch the inserts; a chunk that fails is replayed record
+ * by record to isolate the faulty lines. Each chunk takes its size from the monthly quota at once, so an import
+ * that goes over the quota has its chunk replayed and stops creating invoices at the limit.
+ */
+@Service
+@Slf4j
+public class InvoiceBulkImportService {
+
+    private final InvoiceService invoiceService;
+    private final InvoiceQuota invoiceQuota;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public InvoiceBulkImportService(InvoiceService invoiceService,
+                                    InvoiceQuota invoiceQuota,
+                                    ObjectMapper objectMapper,
+                                    Validator validator,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${invoice.bulk.chunk-size:500}") int chunkSize) {
+        this.invoiceService = invoiceService;
+        this.invoiceQuota = invoiceQuota;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkImportResult importNdjson(InputStream input, UUID ownerUserId) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        List<Record> chunk = new ArrayList<>(chunkSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                CreateInvoiceRequest request = objectMapper.readValue(line, CreateInvoiceRequest.class);
+                request.setOwnerUserId(ownerUserId);
+                Set<ConstraintViolation<CreateInvoiceRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    result.addError(lineNumber, describe(violations));
+                    continue;
+                }
+                chunk.add(new Record(lineNumber, request));
+            } catch (JsonProcessingException e) {
+                result.addError(lineNumber, "Malformed record: " + e.getOriginalMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                persist(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persist(chunk, result);
+        }
+        return result;
+    }
+
+    private void persist(List<Record> chunk, BulkImportResult result) {
+        try {
+            save(chunk);
+            result.addImported(chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            log.debug("Bulk chunk failed, retrying record by record", chunkFailure);
+            for (Record record : chunk) {
+                try {
+                    save(List.of(record));
+                    result.addImported(1);
+                } catch (RuntimeException e) {
+                    result.addError(record.line(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void save(List<Record> records) {
+        UUID ownerUserId = records.get(0).request().getOwnerUserId();
+        YearMonth month = invoiceQuota.reserve(ownerUserId, records.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Record record : records) {
+                    entityManager.persist(invoiceService.newDraft(record.request()));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            invoiceQuota.release(ownerUserId, month, records.size());
+            throw e;
+        }
+    }
+
+    private String describe(Set<ConstraintViolation<CreateInvoiceRequest>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private record Record(long line, CreateInvoiceRequest request) {
+    }
+}
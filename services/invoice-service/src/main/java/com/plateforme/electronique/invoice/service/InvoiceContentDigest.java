@@ -0,0 +1,60 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 of the content of a validated invoice, sealed by signature-service. Each value is written as
+ * UTF-8 text followed by a zero byte, amounts without trailing zeros and missing values as {@code null}:
+ * id, number, issue date, due date, client name, client email, billing address, subtotal, VAT and total,
+ * then id, description, quantity, unit price, tax rate and line total of every line, the lines ordered by
+ * the text form of their id. The status is left out so that the digest stays valid once the invoice is sent.
+ */
+public final class InvoiceContentDigest {
+
+    private InvoiceContentDigest() {
+    }
+
+    public static String of(Invoice invoice) {
+        MessageDigest digest = sha256();
+        update(digest, invoice.getId(), invoice.getInvoiceNumber(), invoice.getIssueDate(), invoice.getDueDate(),
+                invoice.getClientName(), invoice.getClientEmail(), invoice.getBillingAddress(),
+                invoice.getSubtotalHt(), invoice.getVatAmount(), invoice.getTotalTtc());
+        List<InvoiceItem> items = invoice.getItems().stream()
+                .sorted(Comparator.comparing(item -> item.getId().toString()))
+                .toList();
+        for (InvoiceItem item : items) {
+            update(digest, item.getId(), item.getDescription(), item.getQuantity(), item.getUnitPrice(), item.getTaxRate(),
+                    item.getLineTotalHt());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Writes each value as described above. Also used for the content hash of cached PDFs.
+     */
+    static void update(MessageDigest digest, Object... values) {
+        for (Object value : values) {
+            String text = value instanceof BigDecimal amount ? amount.stripTrailingZeros().toPlainString()
+                    : String.valueOf(value);
+            digest.update(text.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
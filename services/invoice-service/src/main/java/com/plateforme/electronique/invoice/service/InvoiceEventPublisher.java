@@ -0,0 +1,83 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateforme.electronique.invoice.dto.InvoiceEvent;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.entity.OutboxEvent;
+import com.plateforme.electronique.invoice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class InvoiceEventPublisher {
+
+    public static final String INVOICE_VALIDATED = "invoice.validated";
+    public static final String INVOICE_SENT = "invoice.sent";
+    public static final String INVOICE_CANCELLED = "invoice.cancelled";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final List<String> subscribers;
+
+    public InvoiceEventPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                                 @Value("${invoice.outbox.subscribers:}") List<String> subscribers) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.subscribers = subscribers(subscribers);
+    }
+
+    static List<String> subscribers(List<String> configured) {
+        return configured.stream().filter(url -> !url.isBlank()).distinct().toList();
+    }
+
+    /**
+     * Records the event in the outbox. Must run inside the transaction that changes the invoice, so the
+     * event exists if and only if the change is committed; {@link OutboxRelay} delivers it afterwards.
+     * One row is written per subscriber.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String type, Invoice invoice, Invoice.Status previousStatus) {
+        InvoiceEvent event = InvoiceEvent.builder()
+                .invoiceId(invoice.getId())
+                .ownerUserId(invoice.getOwnerUserId())
+                .invoiceNumber(invoice.getInvoiceNumber())
+                .status(invoice.getStatus().name())
+                .previousStatus(previousStatus.name())
+                .clientName(invoice.getClientName())
+                .clientEmail(invoice.getClientEmail())
+                .totalTtc(invoice.getTotalTtc())
+                .issueDate(invoice.getIssueDate())
+                .dueDate(invoice.getDueDate())
+                .contentHash(INVOICE_VALIDATED.equals(type) ? InvoiceContentDigest.of(invoice) : null)
+                .build();
+        String payload = toJson(event);
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> rows = new ArrayList<>(subscribers.size());
+        for (String subscriber : subscribers) {
+            rows.add(OutboxEvent.builder()
+                    .subscriber(subscriber)
+                    .eventType(type)
+                    .aggregateId(invoice.getId())
+                    .payload(payload)
+                    .occurredAt(now)
+                    .availableAt(now)
+                    .build());
+        }
+        outboxEventRepository.saveAll(rows);
+    }
+
+    private String toJson(InvoiceEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize invoice event", e);
+        }
+    }
+}
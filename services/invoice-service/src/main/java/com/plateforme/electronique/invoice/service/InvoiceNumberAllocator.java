@@ -0,0 +1,36 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.repository.InvoiceNumberSequenceRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Component
+public class InvoiceNumberAllocator {
+
+    private static final String PREFIX = "FAC";
+
+    private final InvoiceNumberSequenceRepository sequenceRepository;
+
+    public InvoiceNumberAllocator(InvoiceNumberSequenceRepository sequenceRepository) {
+        this.sequenceRepository = sequenceRepository;
+    }
+
+    /**
+     * Allocates the next invoice number of the year. Must run inside the transaction that assigns the
+     * number: a rollback releases it, which keeps the numbering gap-free.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String next(LocalDate date) {
+        int year = date.getYear();
+        long value = sequenceRepository.increment(year).orElseGet(() -> {
+            String yearPrefix = String.format("%s-%d-", PREFIX, year);
+            sequenceRepository.initialize(year, yearPrefix + "%", yearPrefix.length() + 1);
+            return sequenceRepository.increment(year)
+                    .orElseThrow(() -> new IllegalStateException("Invoice number sequence unavailable"));
+        });
+        return String.format("%s-%d-%05d", PREFIX, year, value);
+    }
+}
@@ -0,0 +1,235 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rendered PDFs of invoices that left the draft state, keyed by invoice id and content hash. Documents
+ * live on local disk, bounded by total bytes with the least recently served files removed first; the
+ * small ones are also kept in a memory tier bounded by total bytes.
+ */
+@Component
+@Slf4j
+public class InvoicePdfCache {
+
+    private final InvoicePdfRenderer renderer;
+    private final Path directory;
+    private final long diskMaxBytes;
+    private final long memoryEntryMaxBytes;
+    private final Cache<UUID, CachedPdf> memory;
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    public InvoicePdfCache(InvoicePdfRenderer renderer,
+                           @Value("${invoice.pdf.cache.directory:${java.io.tmpdir}/invoice-pdf-cache}") Path directory,
+                           @Value("${invoice.pdf.cache.disk-max-bytes:1073741824}") long diskMaxBytes,
+                           @Value("${invoice.pdf.cache.memory-max-bytes:67108864}") long memoryMaxBytes,
+                           @Value("${invoice.pdf.cache.memory-entry-max-bytes:1048576}") long memoryEntryMaxBytes)
+            throws IOException {
+        this.renderer = renderer;
+        this.directory = Files.createDirectories(directory);
+        this.diskMaxBytes = diskMaxBytes;
+        this.memoryEntryMaxBytes = memoryEntryMaxBytes;
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxBytes)
+                .weigher((UUID id, CachedPdf pdf) -> pdf.content().length)
+                .build();
+        trim();
+    }
+
+    public static boolean isCacheable(Invoice invoice) {
+        return invoice.getStatus() != Invoice.Status.DRAFT;
+    }
+
+    public String contentHash(Invoice invoice) {
+        MessageDigest digest = InvoiceContentDigest.sha256();
+        InvoiceContentDigest.update(digest, InvoicePdfRenderer.LAYOUT_VERSION, invoice.getId(),
+                invoice.getInvoiceNumber(), invoice.getStatus(), invoice.getIssueDate(), invoice.getDueDate(),
+                invoice.getClientName(), invoice.getClientEmail(), invoice.getBillingAddress(), invoice.getVatRate(),
+                invoice.getSubtotalHt(), invoice.getVatAmount(), invoice.getTotalTtc());
+        for (InvoiceItem item : invoice.getItems()) {
+            InvoiceContentDigest.update(digest, item.getDescription(), item.getQuantity(), item.getUnitPrice(),
+                    item.getTaxRate(), item.getLineTotalHt());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public Optional<byte[]> fromMemory(UUID invoiceId, String hash) {
+        CachedPdf cached = memory.getIfPresent(invoiceId);
+        return cached != null && cached.hash().equals(hash) ? Optional.of(cached.content()) : Optional.empty();
+    }
+
+    /**
+     * The file holding the rendered invoice if it is already on disk. Never renders.
+     */
+    public Optional<Path> cachedFile(UUID invoiceId, String hash) {
+        Path file = path(invoiceId, hash);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            promote(invoiceId, hash, file);
+            return Optional.of(file);
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Unable to read cached PDF {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the rendered invoice to {@code out}, rendering it into the cache first on a miss. Meant to run
+     * on the PDF render pool, not on a request thread.
+     */
+    public void write(Invoice invoice, String hash, OutputStream out) throws IOException {
+        Path file = cachedFile(invoice.getId(), hash).orElse(null);
+        if (file == null) {
+            file = render(invoice, hash);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            in.transferTo(out);
+        } catch (NoSuchFileException e) {
+            // Trimmed or evicted in the meantime: the document is still owed to this caller.
+            renderer.render(invoice, out);
+        }
+    }
+
+    public void evict(UUID invoiceId) {
+        memory.invalidate(invoiceId);
+        try {
+            deleteFiles(invoiceId, null);
+        } catch (IOException e) {
+            log.warn("Unable to evict cached PDF of invoice {}", invoiceId, e);
+        }
+    }
+
+    /**
+     * Renders the invoice into a temp file and moves it into place. Concurrent renderings of the same content
+     * replace each other atomically, so a reader always finds a complete file; only renderings of other
+     * content are removed afterwards.
+     */
+    private Path render(Invoice invoice, String hash) throws IOException {
+        Path file = path(invoice.getId(), hash);
+        Path temp = Files.createTempFile(directory, invoice.getId().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                renderer.render(invoice, out);
+            }
+            long size = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            diskBytes.addAndGet(size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        deleteFiles(invoice.getId(), hash);
+        try {
+            promote(invoice.getId(), hash, file);
+        } catch (NoSuchFileException e) {
+            // Already replaced by a newer rendering; the caller falls back on its own.
+        }
+        if (diskBytes.get() > diskMaxBytes) {
+            trim();
+        }
+        return file;
+    }
+
+    private void promote(UUID invoiceId, String hash, Path file) throws IOException {
+        if (Files.size(file) <= memoryEntryMaxBytes) {
+            memory.put(invoiceId, new CachedPdf(hash, Files.readAllBytes(file)));
+        }
+    }
+
+    /**
+     * Deletes the cached files of the invoice, except the one of {@code keepHash} when it is given.
+     */
+    private void deleteFiles(UUID invoiceId, String keepHash) throws IOException {
+        Path keep = keepHash != null ? path(invoiceId, keepHash) : null;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, invoiceId + "-*.pdf")) {
+            for (Path file : files) {
+                if (!file.equals(keep)) {
+                    delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Recounts the disk tier and removes the least recently served files until it fits its bound again.
+     */
+    private synchronized void trim() {
+        List<CachedFile> files = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.pdf")) {
+            for (Path file : stream) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    files.add(new CachedFile(file, attributes.size(), attributes.lastModifiedTime()));
+                    total += attributes.size();
+                } catch (NoSuchFileException e) {
+                    // Removed concurrently.
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Unable to list the PDF cache {}", directory, e);
+            return;
+        }
+        if (total > diskMaxBytes) {
+            files.sort(Comparator.comparing(CachedFile::lastModified));
+            for (CachedFile file : files) {
+                if (total <= diskMaxBytes) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(file.path());
+                } catch (IOException e) {
+                    log.warn("Unable to delete cached PDF {}", file.path(), e);
+                }
+                total -= file.size();
+            }
+        }
+        diskBytes.set(total);
+    }
+
+    private void delete(Path file) throws IOException {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+            }
+        } catch (NoSuchFileException e) {
+            // Removed concurrently.
+        }
+    }
+
+    private Path path(UUID invoiceId, String hash) {
+        return directory.resolve(invoiceId + "-" + hash + ".pdf");
+    }
+
+    private record CachedPdf(String hash, byte[] content) {
+    }
+
+    private record CachedFile(Path path, long size, FileTime lastModified) {
+    }
+}
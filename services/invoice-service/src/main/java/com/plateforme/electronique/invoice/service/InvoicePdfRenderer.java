@@ -0,0 +1,147 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.plateforme.electronique.invoice.dto.VatBreakdown;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+@Component
+public class InvoicePdfRenderer {
+
+    /**
+     * Part of the cache key of rendered PDFs; bump it whenever the layout changes.
+     */
+    public static final int LAYOUT_VERSION = 2;
+
+    private static final float[] ITEM_COLUMNS = {46, 12, 16, 10, 16};
+    private static final int ROWS_PER_FLUSH = 50;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final FontProgram regularFont;
+    private final FontProgram boldFont;
+    private final TaxCalculator taxCalculator;
+
+    public InvoicePdfRenderer(TaxCalculator taxCalculator) {
+        this.taxCalculator = taxCalculator;
+        try {
+            this.regularFont = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.boldFont = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load PDF fonts", e);
+        }
+    }
+
+    /**
+     * Writes the invoice as PDF to {@code out}. Item rows are flushed to the stream as the table grows,
+     * so memory stays flat whatever the number of lines. The stream is left open.
+     */
+    public void render(Invoice invoice, OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        PdfDocument pdf = new PdfDocument(writer);
+        PdfFont regular = PdfFontFactory.createFont(regularFont, PdfEncodings.WINANSI);
+        PdfFont bold = PdfFontFactory.createFont(boldFont, PdfEncodings.WINANSI);
+        try (Document document = new Document(pdf, PageSize.A4)) {
+            document.setFont(regular).setFontSize(9);
+            writeHeader(document, invoice, bold);
+            writeItems(document, invoice.getItems(), bold);
+            writeTotals(document, invoice, bold);
+        }
+    }
+
+    private void writeHeader(Document document, Invoice invoice, PdfFont bold) {
+        String number = invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : "BROUILLON";
+        document.add(new Paragraph("Facture " + number).setFont(bold).setFontSize(16));
+        if (invoice.getIssueDate() != null) {
+            document.add(new Paragraph("Date d'émission : " + invoice.getIssueDate().format(DATE_FORMAT)));
+        }
+        if (invoice.getDueDate() != null) {
+            document.add(new Paragraph("Date d'échéance : " + invoice.getDueDate().format(DATE_FORMAT)));
+        }
+        Paragraph client = new Paragraph().setMarginTop(12)
+                .add(new Paragraph("Client").setFont(bold))
+                .add("\n" + nullToEmpty(invoice.getClientName()))
+                .add("\n" + nullToEmpty(invoice.getClientEmail()));
+        if (invoice.getBillingAddress() != null) {
+            client.add("\n" + invoice.getBillingAddress());
+        }
+        document.add(client);
+    }
+
+    private void writeItems(Document document, List<InvoiceItem> items, PdfFont bold) {
+        Table table = new Table(UnitValue.createPercentArray(ITEM_COLUMNS), true)
+                .useAllAvailableWidth()
+                .setMarginTop(12);
+        for (String title : new String[]{"Désignation", "Qté", "Prix unitaire HT", "TVA %", "Total HT"}) {
+            table.addHeaderCell(new Cell().add(new Paragraph(title).setFont(bold)));
+        }
+        document.add(table);
+        int row = 0;
+        for (InvoiceItem item : items) {
+            table.addCell(new Cell().add(new Paragraph(item.getDescription())));
+            table.addCell(amountCell(item.getQuantity(), 3));
+            table.addCell(amountCell(item.getUnitPrice(), 4));
+            table.addCell(amountCell(item.getTaxRate(), 2));
+            table.addCell(amountCell(item.getLineTotalHt(), 2));
+            if (++row % ROWS_PER_FLUSH == 0) {
+                table.flush();
+            }
+        }
+        table.complete();
+    }
+
+    private void writeTotals(Document document, Invoice invoice, PdfFont bold) {
+        Table totals = new Table(UnitValue.createPercentArray(new float[]{70, 30}))
+                .useAllAvailableWidth()
+                .setMarginTop(12);
+        totals.addCell(labelCell("Total HT"));
+        totals.addCell(amountCell(invoice.getSubtotalHt(), 2));
+        BigDecimal defaultRate = invoice.getVatRate() != null ? invoice.getVatRate() : BigDecimal.valueOf(19);
+        for (VatBreakdown rate : taxCalculator.summarize(invoice.getItems(), defaultRate).rates()) {
+            totals.addCell(labelCell("TVA " + rate.getRate().toPlainString() + " % sur "
+                    + rate.getBaseHt().setScale(2, RoundingMode.HALF_UP).toPlainString()));
+            totals.addCell(amountCell(rate.getVatAmount(), 2));
+        }
+        totals.addCell(labelCell("Total TVA"));
+        totals.addCell(amountCell(invoice.getVatAmount(), 2));
+        totals.addCell(labelCell("Total TTC").setFont(bold));
+        totals.addCell(amountCell(invoice.getTotalTtc(), 2).setFont(bold));
+        document.add(totals);
+    }
+
+    private Cell labelCell(String label) {
+        return new Cell().add(new Paragraph(label)).setTextAlignment(TextAlignment.RIGHT);
+    }
+
+    private Cell amountCell(BigDecimal value, int scale) {
+        String text = value == null ? "" : value.setScale(scale, RoundingMode.HALF_UP).toPlainString();
+        return new Cell().add(new Paragraph(text)).setTextAlignment(TextAlignment.RIGHT);
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
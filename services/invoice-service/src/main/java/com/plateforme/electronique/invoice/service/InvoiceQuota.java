@@ -0,0 +1,161 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.client.SubscriptionClient;
+import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces the monthly invoice allowance of the owner's plan without counting their invoices on each
+ * creation.
+ *
+ * <p>Every owner with a limited plan has one counter per month in Redis, shared by all instances of the
+ * service: {@link #reserve} checks and increments it atomically in a Lua script, {@link #release} gives back
+ * what a failed creation or a deleted draft had taken. A counter is created from a count of the month's
+ * invoices the first time it is needed, so a new month starts from zero without any reset, and expires after
+ * {@code invoice.quota.resync-seconds} to be counted again; this bounds how long a counter that missed an
+ * update stays wrong.
+ *
+ * <p>When Redis fails, the allowance is checked against a count of the month's invoices instead, and Redis is
+ * left alone for {@code invoice.quota.redis-retry-millis}.
+ */
+@Component
+@Slf4j
+public class InvoiceQuota {
+
+    private static final long RESERVED = 1;
+    private static final long MISSING = -1;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> reserveScript;
+    private final RedisScript<Long> releaseScript;
+    private final InvoiceRepository invoiceRepository;
+    private final SubscriptionClient subscriptionClient;
+    private final long resyncSeconds;
+    private final long redisRetryMillis;
+    private final AtomicLong redisRetryAt = new AtomicLong();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public InvoiceQuota(StringRedisTemplate redisTemplate,
+                        InvoiceRepository invoiceRepository,
+                        SubscriptionClient subscriptionClient,
+                        @Value("${invoice.quota.resync-seconds:3600}") long resyncSeconds,
+                        @Value("${invoice.quota.redis-retry-millis:1000}") long redisRetryMillis) {
+        this.redisTemplate = redisTemplate;
+        this.reserveScript = (RedisScript) RedisScript.of(
+                new ClassPathResource("scripts/invoice_quota_reserve.lua"), List.class);
+        this.releaseScript = RedisScript.of(new ClassPathResource("scripts/invoice_quota_release.lua"), Long.class);
+        this.invoiceRepository = invoiceRepository;
+        this.subscriptionClient = subscriptionClient;
+        this.resyncSeconds = resyncSeconds;
+        this.redisRetryMillis = redisRetryMillis;
+    }
+
+    /**
+     * Takes {@code count} invoices from the owner's allowance for the current month.
+     *
+     * @return the month charged, to {@link #release} into if the invoices are not created after all
+     * @throws InvoiceQuotaExceededException when the allowance does not cover them
+     */
+    public YearMonth reserve(UUID ownerUserId, int count) {
+        YearMonth month = YearMonth.now();
+        Integer limit = subscriptionClient.maxInvoicesPerMonth(ownerUserId);
+        if (limit == null) {
+            return month;
+        }
+        String key = key(ownerUserId, month);
+        List<Long> result = reserveInRedis(key, limit, count, "");
+        if (result != null && result.get(0) == MISSING) {
+            result = reserveInRedis(key, limit, count, Long.toString(countCreated(ownerUserId, month)));
+        }
+        if (result == null) {
+            if (countCreated(ownerUserId, month) + count > limit) {
+                throw new InvoiceQuotaExceededException(limit);
+            }
+        } else if (result.get(0) != RESERVED) {
+            throw new InvoiceQuotaExceededException(limit);
+        }
+        return month;
+    }
+
+    /**
+     * Gives {@code count} invoices back to the owner's allowance for {@code month}.
+     */
+    public void release(UUID ownerUserId, YearMonth month, int count) {
+        if (!redisAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.execute(releaseScript, List.of(key(ownerUserId, month)), Integer.toString(count));
+            redisRecovered();
+        } catch (DataAccessException e) {
+            redisFailed(e);
+        }
+    }
+
+    /**
+     * Runs the reservation script, {@code null} when Redis is unavailable.
+     */
+    private List<Long> reserveInRedis(String key, int limit, int count, String seed) {
+        if (!redisAvailable()) {
+            return null;
+        }
+        try {
+            List<Long> result = redisTemplate.execute(reserveScript, List.of(key), Integer.toString(limit),
+                    Integer.toString(count), Long.toString(ttlSeconds()), seed);
+            redisRecovered();
+            return result;
+        } catch (DataAccessException e) {
+            redisFailed(e);
+            return null;
+        }
+    }
+
+    private long countCreated(UUID ownerUserId, YearMonth month) {
+        return invoiceRepository.countByOwnerUserIdAndCreatedAtGreaterThanEqual(ownerUserId,
+                month.atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Until the next resync, or the end of the month when it comes first.
+     */
+    private long ttlSeconds() {
+        LocalDateTime now = LocalDateTime.now();
+        long untilNextMonth = Duration.between(now, YearMonth.from(now).plusMonths(1).atDay(1).atStartOfDay())
+                .toSeconds();
+        return Math.max(1, Math.min(resyncSeconds, untilNextMonth));
+    }
+
+    private boolean redisAvailable() {
+        return System.currentTimeMillis() >= redisRetryAt.get();
+    }
+
+    private void redisRecovered() {
+        long retryAt = redisRetryAt.get();
+        if (retryAt != 0 && redisRetryAt.compareAndSet(retryAt, 0)) {
+            log.info("Redis available again for invoice quotas");
+        }
+    }
+
+    private void redisFailed(DataAccessException e) {
+        if (redisRetryAt.getAndSet(System.currentTimeMillis() + redisRetryMillis) == 0) {
+            log.warn("Redis unavailable for invoice quotas, counting invoices instead: {}", e.toString());
+        }
+    }
+
+    private static String key(UUID ownerUserId, YearMonth month) {
+        return "quota:invoices:" + ownerUserId + ":" + month;
+    }
+}
@@ -0,0 +1,17 @@
+package com.plateforme.electronique.invoice.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The owner has already created as many invoices this month as their plan allows.
+ */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class InvoiceQuotaExceededException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvoiceQuotaExceededException(int limit) {
+        super("Monthly invoice quota of " + limit + " reached");
+    }
+}
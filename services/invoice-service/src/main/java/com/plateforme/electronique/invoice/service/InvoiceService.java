@@ -1,27 +1,79 @@
 package com.plateforme.electronique.invoice.service;
 
+import com.plateforme.electronique.invoice.dto.CreateInvoiceItemRequest;
 import com.plateforme.electronique.invoice.dto.CreateInvoiceRequest;
+import com.plateforme.electronique.invoice.dto.InvoiceCursorPage;
+import com.plateforme.electronique.invoice.dto.InvoiceItemsPatchResult;
+import com.plateforme.electronique.invoice.dto.InvoiceSeal;
+import com.plateforme.electronique.invoice.dto.InvoiceSummary;
+import com.plateforme.electronique.invoice.dto.PatchInvoiceItemsRequest;
+import com.plateforme.electronique.invoice.dto.UpdateInvoiceItemRequest;
 import com.plateforme.electronique.invoice.entity.Invoice;
 import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import com.plateforme.electronique.invoice.repository.InvoiceItemRepository;
 import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
+    private final InvoiceItemRepository invoiceItemRepository;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final InvoicePdfCache pdfCache;
+    private final TaxCalculator taxCalculator;
+    private final InvoiceEventPublisher eventPublisher;
+    private final InvoiceQuota invoiceQuota;
 
-    public InvoiceService(InvoiceRepository invoiceRepository) {
+    public InvoiceService(InvoiceRepository invoiceRepository,
+                          InvoiceItemRepository invoiceItemRepository,
+                          InvoiceNumberAllocator invoiceNumberAllocator,
+                          InvoicePdfCache pdfCache,
+                          TaxCalculator taxCalculator,
+                          InvoiceEventPublisher eventPublisher,
+                          InvoiceQuota invoiceQuota) {
         this.invoiceRepository = invoiceRepository;
+        this.invoiceItemRepository = invoiceItemRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.pdfCache = pdfCache;
+        this.taxCalculator = taxCalculator;
+        this.eventPublisher = eventPublisher;
+        this.invoiceQuota = invoiceQuota;
     }
 
     public Invoice createInvoice(CreateInvoiceRequest request) {
+        YearMonth month = invoiceQuota.reserve(request.getOwnerUserId(), 1);
+        try {
+            return invoiceRepository.save(newDraft(request));
+        } catch (RuntimeException e) {
+            invoiceQuota.release(request.getOwnerUserId(), month, 1);
+            throw e;
+        }
+    }
+
+    /**
+     * Builds a draft invoice with its items and totals, without persisting it.
+     */
+    public Invoice newDraft(CreateInvoiceRequest request) {
         Invoice invoice = Invoice.builder()
                 .ownerUserId(request.getOwnerUserId())
                 .clientName(request.getClientName())
@@ -34,18 +86,36 @@ public class InvoiceService {
                 .build();
 
         List<InvoiceItem> items = request.getItems().stream()
-                .map(item -> InvoiceItem.builder()
-                        .invoice(invoice)
-                        .description(item.getDescription())
-                        .quantity(item.getQuantity())
-                        .unitPrice(item.getUnitPrice())
-                        .taxRate(defaultVat(item.getTaxRate()))
-                        .lineTotalHt(item.getUnitPrice().multiply(item.getQuantity()))
-                        .build())
+                .map(item -> toItem(invoice, item))
                 .toList();
         invoice.setItems(items);
         computeTotals(invoice);
-        return invoiceRepository.save(invoice);
+        return invoice;
+    }
+
+    public InvoiceCursorPage listInvoices(UUID ownerId, Invoice.Status status, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, 100));
+        Limit fetch = Limit.of(pageSize + 1);
+        List<InvoiceSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = status == null
+                    ? invoiceRepository.findFirstSummaries(ownerId, fetch)
+                    : invoiceRepository.findFirstSummariesByStatus(ownerId, status, fetch);
+        } else {
+            InvoiceCursor after = InvoiceCursor.decode(cursor);
+            rows = status == null
+                    ? invoiceRepository.findSummariesAfter(ownerId, after.createdAt(), after.id(), fetch)
+                    : invoiceRepository.findSummariesByStatusAfter(ownerId, status, after.createdAt(), after.id(),
+                            fetch);
+        }
+        boolean hasNext = rows.size() > pageSize;
+        List<InvoiceSummary> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            InvoiceSummary last = content.get(content.size() - 1);
+            nextCursor = new InvoiceCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new InvoiceCursorPage(content, nextCursor, hasNext);
     }
 
     public Invoice updateDraft(UUID invoiceId, UUID ownerId, CreateInvoiceRequest request) {
@@ -62,14 +132,7 @@ public class InvoiceService {
         invoice.setDueDate(request.getDueDate());
         invoice.getItems().clear();
         List<InvoiceItem> items = request.getItems().stream()
-                .map(item -> InvoiceItem.builder()
-                        .invoice(invoice)
-                        .description(item.getDescription())
-                        .quantity(item.getQuantity())
-                        .unitPrice(item.getUnitPrice())
-                        .taxRate(defaultVat(item.getTaxRate()))
-                        .lineTotalHt(item.getUnitPrice().multiply(item.getQuantity()))
-                        .build())
+                .map(item -> toItem(invoice, item))
                 .toList();
         invoice.getItems().addAll(items);
         invoice.setUpdatedAt(LocalDateTime.now());
@@ -77,55 +140,211 @@ public class InvoiceService {
         return invoiceRepository.save(invoice);
     }
 
+    /**
+     * Adds, updates and removes individual lines of a draft. Only the affected rows are read and written,
+     * and the bases per rate stored on the invoice are adjusted by the line totals removed and added, so the
+     * cost of a patch does not depend on the number of lines. The caller passes the version it last read; a
+     * concurrent edit makes the patch fail with an {@link ObjectOptimisticLockingFailureException}, answered
+     * with 409 by the controller.
+     */
+    @Transactional
+    public InvoiceItemsPatchResult patchItems(UUID invoiceId, UUID ownerId, PatchInvoiceItemsRequest request) {
+        Invoice invoice = invoiceRepository.findByIdAndOwnerUserId(invoiceId, ownerId)
+                .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+        if (invoice.getStatus() != Invoice.Status.DRAFT) {
+            throw new IllegalStateException("Only drafts can be modified");
+        }
+        if (!invoice.getVersion().equals(request.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Invoice.class, invoiceId);
+        }
+        BigDecimal defaultRate = defaultVat(invoice.getVatRate());
+        Map<BigDecimal, BigDecimal> bases = new HashMap<>(invoice.getVatBases());
+        if (bases.isEmpty()) {
+            // Invoices created before the bases were stored: summed once by the database, before any change.
+            for (InvoiceItemRepository.RateBase row : invoiceItemRepository.sumLineTotalsByRate(invoiceId)) {
+                taxCalculator.addToBase(bases, row.getRate(), row.getBase(), defaultRate);
+            }
+        }
+
+        Set<UUID> touchedIds = new HashSet<>();
+        List<UUID> requestedIds = new ArrayList<>(request.getRemove());
+        request.getUpdate().forEach(update -> requestedIds.add(update.getId()));
+        for (UUID id : requestedIds) {
+            if (!touchedIds.add(id)) {
+                throw new IllegalArgumentException("Invoice item " + id + " is changed more than once");
+            }
+        }
+        Map<UUID, InvoiceItem> existing = touchedIds.isEmpty() ? Map.of()
+                : invoiceItemRepository.findByInvoiceIdAndIdIn(invoiceId, touchedIds).stream()
+                        .collect(Collectors.toMap(InvoiceItem::getId, Function.identity()));
+        if (existing.size() != touchedIds.size()) {
+            throw new IllegalArgumentException("Invoice item not found");
+        }
+
+        for (UUID id : request.getRemove()) {
+            taxCalculator.removeLine(bases, existing.get(id), defaultRate);
+        }
+        List<InvoiceItem> updated = new ArrayList<>();
+        for (UpdateInvoiceItemRequest update : request.getUpdate()) {
+            InvoiceItem item = existing.get(update.getId());
+            taxCalculator.removeLine(bases, item, defaultRate);
+            if (update.getDescription() != null) {
+                item.setDescription(update.getDescription());
+            }
+            if (update.getQuantity() != null) {
+                item.setQuantity(update.getQuantity());
+            }
+            if (update.getUnitPrice() != null) {
+                item.setUnitPrice(update.getUnitPrice());
+            }
+            if (update.getTaxRate() != null) {
+                item.setTaxRate(update.getTaxRate());
+            }
+            updated.add(item);
+        }
+        List<InvoiceItem> added = request.getAdd().stream()
+                .map(item -> toItem(invoice, item))
+                .toList();
+        taxCalculator.computeLines(updated, defaultRate);
+        taxCalculator.computeLines(added, defaultRate);
+        updated.forEach(item -> taxCalculator.addLine(bases, item, defaultRate));
+        added.forEach(item -> taxCalculator.addLine(bases, item, defaultRate));
+
+        if (!request.getRemove().isEmpty()) {
+            invoiceItemRepository.deleteAllByIdInBatch(request.getRemove());
+        }
+        invoiceItemRepository.saveAll(added);
+
+        // The VAT is rounded per rate, so the totals are recomputed from the adjusted bases.
+        taxCalculator.fromBases(bases, defaultRate).applyTo(invoice);
+        invoice.setUpdatedAt(LocalDateTime.now());
+        Invoice saved = invoiceRepository.saveAndFlush(invoice);
+        return new InvoiceItemsPatchResult(saved.getId(), saved.getVersion(), saved.getSubtotalHt(),
+                saved.getVatAmount(), saved.getTotalTtc(), added, updated);
+    }
+
+    @Transactional
     public Invoice validateInvoice(UUID invoiceId, UUID ownerId) {
         Invoice invoice = invoiceRepository.findByIdAndOwnerUserId(invoiceId, ownerId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
         if (invoice.getStatus() != Invoice.Status.DRAFT) {
             throw new IllegalStateException("Only drafts can be validated");
         }
-        invoice.setInvoiceNumber(generateInvoiceNumber());
+        Invoice.Status previous = invoice.getStatus();
+        invoice.setInvoiceNumber(invoiceNumberAllocator.next(LocalDate.now()));
         invoice.setStatus(Invoice.Status.VALIDATED);
         invoice.setUpdatedAt(LocalDateTime.now());
-        return invoiceRepository.save(invoice);
+        Invoice validated = invoiceRepository.save(invoice);
+        eventPublisher.publish(InvoiceEventPublisher.INVOICE_VALIDATED, validated, previous);
+        return validated;
     }
 
+    @Transactional
     public Invoice sendInvoice(UUID invoiceId, UUID ownerId) {
         Invoice invoice = invoiceRepository.findByIdAndOwnerUserId(invoiceId, ownerId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
         if (invoice.getStatus() == Invoice.Status.DRAFT) {
             throw new IllegalStateException("Invoice must be validated before send");
         }
+        Invoice.Status previous = invoice.getStatus();
         invoice.setStatus(Invoice.Status.SENT);
         invoice.setUpdatedAt(LocalDateTime.now());
-        return invoiceRepository.save(invoice);
+        Invoice sent = invoiceRepository.save(invoice);
+        eventPublisher.publish(InvoiceEventPublisher.INVOICE_SENT, sent, previous);
+        return sent;
     }
 
+    @Transactional
     public Invoice cancelInvoice(UUID invoiceId, UUID ownerId) {
         Invoice invoice = invoiceRepository.findByIdAndOwnerUserId(invoiceId, ownerId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+        Invoice.Status previous = invoice.getStatus();
+        if (previous == Invoice.Status.CANCELLED) {
+            throw new IllegalStateException("Invoice is already cancelled");
+        }
         invoice.setStatus(Invoice.Status.CANCELLED);
         invoice.setUpdatedAt(LocalDateTime.now());
+        Invoice cancelled = invoiceRepository.save(invoice);
+        // A draft was never issued, so its cancellation concerns nobody outside.
+        if (previous != Invoice.Status.DRAFT) {
+            eventPublisher.publish(InvoiceEventPublisher.INVOICE_CANCELLED, cancelled, previous);
+            pdfCache.evict(invoiceId);
+        }
+        return cancelled;
+    }
+
+    /**
+     * Records the hash of the signed PDF produced by signature-service.
+     */
+    @Transactional
+    public Invoice recordSignature(UUID invoiceId, String signatureHash) {
+        Invoice invoice = invoiceRepository.findById(invoiceId)
+                .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
+        if (invoice.getStatus() == Invoice.Status.DRAFT) {
+            throw new IllegalStateException("Drafts cannot be signed");
+        }
+        invoice.setSignatureHash(signatureHash);
+        invoice.setUpdatedAt(LocalDateTime.now());
         return invoiceRepository.save(invoice);
     }
 
+    /**
+     * Stores the Merkle seals produced by signature-service. Invoices that no longer exist are skipped;
+     * returns the number of invoices updated.
+     */
+    @Transactional
+    public int recordSeals(List<InvoiceSeal> seals) {
+        Map<UUID, InvoiceSeal> byInvoice = seals.stream()
+                .collect(Collectors.toMap(InvoiceSeal::getInvoiceId, seal -> seal, (first, second) -> second));
+        List<Invoice> invoices = invoiceRepository.findAllById(byInvoice.keySet());
+        LocalDateTime now = LocalDateTime.now();
+        for (Invoice invoice : invoices) {
+            InvoiceSeal seal = byInvoice.get(invoice.getId());
+            invoice.setSealLeafHash(seal.getLeafHash());
+            invoice.setSealProof(seal.getSealProof());
+            invoice.setUpdatedAt(now);
+        }
+        invoiceRepository.saveAll(invoices);
+        return invoices.size();
+    }
+
+    /**
+     * Deletes a draft and gives it back to the owner's monthly allowance once the deletion is committed. The
+     * allowance is only credited by the call that actually deleted the draft, so a repeated or concurrent
+     * delete cannot release it twice.
+     */
+    @Transactional
     public void deleteDraft(UUID invoiceId, UUID ownerId) {
         Invoice invoice = invoiceRepository.findByIdAndOwnerUserId(invoiceId, ownerId)
                 .orElseThrow(() -> new IllegalArgumentException("Invoice not found"));
         if (invoice.getStatus() != Invoice.Status.DRAFT) {
             throw new IllegalStateException("Only drafts can be deleted");
         }
-        invoiceRepository.delete(invoice);
+        if (invoiceRepository.deleteDraft(invoiceId, ownerId) != 1) {
+            // Deleted or validated by another request since it was read.
+            throw new IllegalStateException("Only drafts can be deleted");
+        }
+        YearMonth month = YearMonth.from(invoice.getCreatedAt());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invoiceQuota.release(ownerId, month, 1);
+            }
+        });
+    }
+
+    private InvoiceItem toItem(Invoice invoice, CreateInvoiceItemRequest item) {
+        return InvoiceItem.builder()
+                .invoice(invoice)
+                .description(item.getDescription())
+                .quantity(item.getQuantity())
+                .unitPrice(item.getUnitPrice())
+                .taxRate(item.getTaxRate() != null ? item.getTaxRate() : invoice.getVatRate())
+                .build();
     }
 
     private void computeTotals(Invoice invoice) {
-        BigDecimal subtotal = invoice.getItems().stream()
-                .map(InvoiceItem::computeLineTotalHt)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal vatRate = defaultVat(invoice.getVatRate());
-        BigDecimal vatAmount = subtotal.multiply(vatRate).divide(BigDecimal.valueOf(100), 4, java.math.RoundingMode.HALF_UP);
-        invoice.setSubtotalHt(subtotal);
-        invoice.setVatAmount(vatAmount);
-        invoice.setTotalTtc(subtotal.add(vatAmount));
+        taxCalculator.computeLines(invoice.getItems(), defaultVat(invoice.getVatRate())).applyTo(invoice);
     }
 
     private BigDecimal defaultVat(BigDecimal rate) {
@@ -135,10 +354,4 @@ public class InvoiceService {
     private LocalDate defaultDate(LocalDate date) {
         return date == null ? LocalDate.now() : date;
     }
-
-    private String generateInvoiceNumber() {
-        int year = LocalDate.now().getYear();
-        long seq = invoiceRepository.count() + 1;
-        return String.format("FAC-%d-%05d", year, seq);
-    }
 }
@@ -0,0 +1,132 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.dto.OutboxMessage;
+import com.plateforme.electronique.invoice.entity.OutboxEvent;
+import com.plateforme.electronique.invoice.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Delivers the outbox to the subscribers. Every subscriber has its own rows, leased in batches, posted as a
+ * JSON array and deleted once the subscriber accepted them; no row lock is held during the HTTP call. A
+ * crash before the deletion leaves the rows in place until their lease expires, so events are delivered at
+ * least once and subscribers must ignore ids they have already seen. A failed batch is retried later with
+ * an exponential backoff, without delaying the other subscribers.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RestClient restClient;
+    private final List<String> subscribers;
+    private final int batchSize;
+    private final long maxBackoffSeconds;
+    private final Duration lease;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       PlatformTransactionManager transactionManager,
+                       RestClient.Builder restClientBuilder,
+                       @Value("${invoice.outbox.subscribers:}") List<String> subscribers,
+                       @Value("${invoice.outbox.batch-size:100}") int batchSize,
+                       @Value("${invoice.outbox.max-backoff-seconds:300}") long maxBackoffSeconds,
+                       @Value("${invoice.outbox.connect-timeout-millis:2000}") long connectTimeoutMillis,
+                       @Value("${invoice.outbox.read-timeout-millis:5000}") long readTimeoutMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.restClient = restClientBuilder.clone()
+                .requestFactory(ClientHttpRequestFactories.get(ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                        .withReadTimeout(Duration.ofMillis(readTimeoutMillis))))
+                .build();
+        this.subscribers = InvoiceEventPublisher.subscribers(subscribers);
+        this.batchSize = batchSize;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        // Long enough for one delivery attempt to time out before another instance may lease the batch again.
+        this.lease = Duration.ofMillis(2 * (connectTimeoutMillis + readTimeoutMillis));
+    }
+
+    /**
+     * Events queued by versions that kept a single row for all subscribers are never claimed; they are
+     * copied to every configured subscriber once, at startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void assignUnassignedEvents() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        int rows = outboxEventRepository.fanOutUnassigned(String.join(",", subscribers));
+        if (rows > 0) {
+            log.info("Queued {} outbox events left without subscriber for {} subscribers", rows, subscribers.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.outbox.poll-interval-millis:1000}")
+    public void relay() {
+        for (String subscriber : subscribers) {
+            int delivered;
+            do {
+                delivered = relayBatch(subscriber);
+            } while (delivered == batchSize);
+        }
+    }
+
+    private int relayBatch(String subscriber) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.claimBatch(subscriber, now, now.plus(lease), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<OutboxMessage> messages = batch.stream()
+                .map(event -> new OutboxMessage(event.getId(), event.getEventType(), event.getAggregateId(),
+                        event.getOccurredAt(), event.getPayload()))
+                .toList();
+        try {
+            restClient.post()
+                    .uri(subscriber)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(messages)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException | IllegalStateException e) {
+            // IllegalStateException: the load balancer has no instance of the subscriber
+            log.warn("Outbox delivery of {} events to {} failed: {}", batch.size(), subscriber, e.getMessage());
+            reschedule(batch, e.getMessage());
+            return 0;
+        }
+        outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+        return batch.size();
+    }
+
+    private void reschedule(List<OutboxEvent> batch, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OutboxEvent event : batch) {
+                event.setAttempts(event.getAttempts() + 1);
+                long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(event.getAttempts(), 20));
+                event.setAvailableAt(now.plusSeconds(backoff));
+                event.setLastError(lastError);
+            }
+            outboxEventRepository.saveAll(batch);
+        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.dto.VatBreakdown;
+import com.plateforme.electronique.invoice.entity.Invoice;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Totals of an invoice with the VAT grouped per rate, ordered by rate. Applying it also stores the non-zero
+ * bases per rate on the invoice.
+ */
+public record TaxBreakdown(BigDecimal subtotalHt, BigDecimal vatAmount, BigDecimal totalTtc, List<VatBreakdown> rates) {
+
+    public void applyTo(Invoice invoice) {
+        invoice.setSubtotalHt(subtotalHt);
+        invoice.setVatAmount(vatAmount);
+        invoice.setTotalTtc(totalTtc);
+        if (invoice.getVatBases() == null) {
+            invoice.setVatBases(new HashMap<>());
+        }
+        invoice.getVatBases().clear();
+        for (VatBreakdown rate : rates) {
+            if (rate.getBaseHt().signum() != 0) {
+                invoice.getVatBases().put(rate.getRate(), rate.getBaseHt());
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.dto.VatBreakdown;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Computes line totals and the per-rate VAT breakdown of an invoice.
+ *
+ * <p>Amounts are handled as scaled longs matching the column scales (quantities in thousandths, prices and
+ * amounts in ten-thousandths, rates in hundredths), so summing thousands of lines creates no intermediate
+ * {@link BigDecimal} per multiplication or addition. VAT is rounded half-up once per rate, on the base of that rate. Should a value
+ * not fit in a long, the whole computation is redone with {@link BigDecimal}, which gives the same result.
+ */
+@Component
+public class TaxCalculator {
+
+    private static final int AMOUNT_SCALE = 4;
+    private static final int QUANTITY_SCALE = 3;
+    private static final int RATE_SCALE = 2;
+    private static final long QUANTITY_UNIT = 1_000L;
+    private static final long PERCENT_UNIT = 10_000L;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * Computes and assigns {@code lineTotalHt} of every item, then returns the invoice totals. Items
+     * without a tax rate get {@code defaultRate}.
+     */
+    public TaxBreakdown computeLines(List<InvoiceItem> items, BigDecimal defaultRate) {
+        try {
+            RateTotals totals = new RateTotals();
+            for (InvoiceItem item : items) {
+                if (item.getTaxRate() == null) {
+                    item.setTaxRate(defaultRate);
+                }
+                long line = lineTotal(scaled(item.getQuantity(), QUANTITY_SCALE), scaled(item.getUnitPrice(), AMOUNT_SCALE));
+                item.setLineTotalHt(BigDecimal.valueOf(line, AMOUNT_SCALE));
+                totals.add(scaled(item.getTaxRate(), RATE_SCALE), line);
+            }
+            return totals.toBreakdown();
+        } catch (ArithmeticException overflow) {
+            Map<BigDecimal, BigDecimal> bases = new TreeMap<>();
+            for (InvoiceItem item : items) {
+                if (item.getTaxRate() == null) {
+                    item.setTaxRate(defaultRate);
+                }
+                BigDecimal line = item.getQuantity().setScale(QUANTITY_SCALE, RoundingMode.HALF_UP)
+                        .multiply(item.getUnitPrice().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP))
+                        .setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+                item.setLineTotalHt(line);
+                bases.merge(item.getTaxRate().setScale(RATE_SCALE, RoundingMode.HALF_UP), line, BigDecimal::add);
+            }
+            return breakdownOf(bases);
+        }
+    }
+
+    /**
+     * Returns the totals of items whose {@code lineTotalHt} is already computed, without modifying them.
+     */
+    public TaxBreakdown summarize(List<InvoiceItem> items, BigDecimal defaultRate) {
+        try {
+            RateTotals totals = new RateTotals();
+            for (InvoiceItem item : items) {
+                BigDecimal rate = item.getTaxRate() == null ? defaultRate : item.getTaxRate();
+                if (item.getLineTotalHt() != null) {
+                    totals.add(scaled(rate, RATE_SCALE), scaled(item.getLineTotalHt(), AMOUNT_SCALE));
+                }
+            }
+            return totals.toBreakdown();
+        } catch (ArithmeticException overflow) {
+            Map<BigDecimal, BigDecimal> bases = new TreeMap<>();
+            for (InvoiceItem item : items) {
+                BigDecimal rate = item.getTaxRate() == null ? defaultRate : item.getTaxRate();
+                if (item.getLineTotalHt() != null) {
+                    bases.merge(rate.setScale(RATE_SCALE, RoundingMode.HALF_UP), item.getLineTotalHt(), BigDecimal::add);
+                }
+            }
+            return breakdownOf(bases);
+        }
+    }
+
+    /**
+     * Returns the totals from bases already summed per rate, e.g. by the database. A {@code null} rate
+     * stands for {@code defaultRate}.
+     */
+    public TaxBreakdown fromBases(Map<BigDecimal, BigDecimal> baseByRate, BigDecimal defaultRate) {
+        Map<BigDecimal, BigDecimal> bases = new TreeMap<>();
+        baseByRate.forEach((rate, base) -> bases.merge(
+                (rate == null ? defaultRate : rate).setScale(RATE_SCALE, RoundingMode.HALF_UP), base, BigDecimal::add));
+        return breakdownOf(bases);
+    }
+
+    /**
+     * Adds the line total of an item, computed beforehand, to the bases per rate.
+     */
+    public void addLine(Map<BigDecimal, BigDecimal> bases, InvoiceItem item, BigDecimal defaultRate) {
+        addToBase(bases, item.getTaxRate(), item.getLineTotalHt(), defaultRate);
+    }
+
+    /**
+     * Takes the current line total of an item out of the bases per rate, before the item changes or is removed.
+     */
+    public void removeLine(Map<BigDecimal, BigDecimal> bases, InvoiceItem item, BigDecimal defaultRate) {
+        if (item.getLineTotalHt() != null) {
+            addToBase(bases, item.getTaxRate(), item.getLineTotalHt().negate(), defaultRate);
+        }
+    }
+
+    /**
+     * Adds {@code amount} to the base of {@code rate}, {@code null} standing for {@code defaultRate}. A base
+     * that comes back to zero is removed.
+     */
+    public void addToBase(Map<BigDecimal, BigDecimal> bases, BigDecimal rate, BigDecimal amount, BigDecimal defaultRate) {
+        if (amount == null) {
+            return;
+        }
+        BigDecimal key = (rate == null ? defaultRate : rate).setScale(RATE_SCALE, RoundingMode.HALF_UP);
+        BigDecimal base = bases.getOrDefault(key, BigDecimal.ZERO).add(amount)
+                .setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+        if (base.signum() == 0) {
+            bases.remove(key);
+        } else {
+            bases.put(key, base);
+        }
+    }
+
+    private TaxBreakdown breakdownOf(Map<BigDecimal, BigDecimal> bases) {
+        List<VatBreakdown> rates = new ArrayList<>(bases.size());
+        BigDecimal subtotal = BigDecimal.ZERO.setScale(AMOUNT_SCALE);
+        BigDecimal vat = BigDecimal.ZERO.setScale(AMOUNT_SCALE);
+        for (Map.Entry<BigDecimal, BigDecimal> entry : bases.entrySet()) {
+            BigDecimal base = entry.getValue().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+            BigDecimal rateVat = base.multiply(entry.getKey()).divide(HUNDRED, AMOUNT_SCALE, RoundingMode.HALF_UP);
+            rates.add(new VatBreakdown(entry.getKey(), base, rateVat));
+            subtotal = subtotal.add(base);
+            vat = vat.add(rateVat);
+        }
+        return new TaxBreakdown(subtotal, vat, subtotal.add(vat), rates);
+    }
+
+    private static long lineTotal(long quantity, long unitPrice) {
+        return divideHalfUp(Math.multiplyExact(quantity, unitPrice), QUANTITY_UNIT);
+    }
+
+    private static long scaled(BigDecimal value, int scale) {
+        BigDecimal rounded = value.scale() == scale ? value : value.setScale(scale, RoundingMode.HALF_UP);
+        return rounded.unscaledValue().longValueExact();
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long half = divisor / 2;
+        return dividend >= 0
+                ? Math.addExact(dividend, half) / divisor
+                : -(Math.addExact(-dividend, half) / divisor);
+    }
+
+    /**
+     * Scaled bases accumulated per rate. Invoices carry a handful of distinct rates, so a linear scan over
+     * two parallel arrays beats hashing boxed keys.
+     */
+    private static final class RateTotals {
+        private long[] rates = new long[4];
+        private long[] bases = new long[4];
+        private int size;
+
+        void add(long rate, long amount) {
+            for (int i = 0; i < size; i++) {
+                if (rates[i] == rate) {
+                    bases[i] = Math.addExact(bases[i], amount);
+                    return;
+                }
+            }
+            if (size == rates.length) {
+                rates = Arrays.copyOf(rates, size * 2);
+                bases = Arrays.copyOf(bases, size * 2);
+            }
+            rates[size] = rate;
+            bases[size] = amount;
+            size++;
+        }
+
+        TaxBreakdown toBreakdown() {
+            sortByRate();
+            List<VatBreakdown> breakdown = new ArrayList<>(size);
+            long subtotal = 0;
+            long vat = 0;
+            for (int i = 0; i < size; i++) {
+                long rateVat = divideHalfUp(Math.multiplyExact(bases[i], rates[i]), PERCENT_UNIT);
+                breakdown.add(new VatBreakdown(BigDecimal.valueOf(rates[i], RATE_SCALE),
+                        BigDecimal.valueOf(bases[i], AMOUNT_SCALE), BigDecimal.valueOf(rateVat, AMOUNT_SCALE)));
+                subtotal = Math.addExact(subtotal, bases[i]);
+                vat = Math.addExact(vat, rateVat);
+            }
+            return new TaxBreakdown(BigDecimal.valueOf(subtotal, AMOUNT_SCALE), BigDecimal.valueOf(vat, AMOUNT_SCALE),
+                    BigDecimal.valueOf(Math.addExact(subtotal, vat), AMOUNT_SCALE), breakdown);
+        }
+
+        private void sortByRate() {
+            for (int i = 1; i < size; i++) {
+                long rate = rates[i];
+                long base = bases[i];
+                int j = i - 1;
+                while (j >= 0 && rates[j] > rate) {
+                    rates[j + 1] = rates[j];
+                    bases[j + 1] = bases[j];
+                    j--;
+                }
+                rates[j + 1] = rate;
+                bases[j + 1] = base;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+-- Runs after Hibernate updated the schema (spring.jpa.defer-datasource-initialization), on every start.
+
+-- The count()+1 numbering used before the sequence table could hand the same number to two invoices. Until the
+-- unique index exists, every duplicate but the oldest invoice gets the next free number of its year, and the
+-- change is recorded in invoice_number_renumberings so that it can be reported to the owners.
+CREATE TABLE IF NOT EXISTS invoice_number_renumberings (
+    invoice_id uuid PRIMARY KEY,
+    previous_number varchar(30) NOT NULL,
+    new_number varchar(30) NOT NULL,
+    renumbered_at timestamp NOT NULL DEFAULT now()
+);
+
+WITH ranked AS (
+    SELECT id, invoice_number, SUBSTRING(invoice_number FROM 5 FOR 4) AS sequence_year,
+           ROW_NUMBER() OVER (PARTITION BY invoice_number ORDER BY created_at, id) AS occurrence
+    FROM invoices
+    WHERE invoice_number ~ '^FAC-[0-9]{4}-[0-9]+$'
+      AND NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uk_invoice_number')
+), duplicates AS (
+    SELECT id, invoice_number, sequence_year,
+           ROW_NUMBER() OVER (PARTITION BY sequence_year ORDER BY invoice_number, id) AS offset_in_year
+    FROM ranked
+    WHERE occurrence > 1
+), year_max AS (
+    SELECT sequence_year, MAX(CAST(SUBSTRING(invoice_number FROM 10) AS bigint)) AS last_value
+    FROM ranked
+    GROUP BY sequence_year
+), renumbered AS (
+    UPDATE invoices i
+    SET invoice_number = 'FAC-' || d.sequence_year || '-'
+            || LPAD(CAST(m.last_value + d.offset_in_year AS text),
+                    GREATEST(5, LENGTH(CAST(m.last_value + d.offset_in_year AS text))), '0')
+    FROM duplicates d
+    JOIN year_max m ON m.sequence_year = d.sequence_year
+    WHERE i.id = d.id
+    RETURNING i.id, d.invoice_number AS previous_number, i.invoice_number AS new_number
+)
+INSERT INTO invoice_number_renumberings (invoice_id, previous_number, new_number)
+SELECT id, previous_number, new_number FROM renumbered
+ON CONFLICT (invoice_id) DO NOTHING;
+
+-- Counters start after the highest number issued in their year, including numbers issued before the sequence
+-- table existed.
+INSERT INTO invoice_number_sequences (sequence_year, last_value)
+SELECT CAST(SUBSTRING(invoice_number FROM 5 FOR 4) AS integer), MAX(CAST(SUBSTRING(invoice_number FROM 10) AS bigint))
+FROM invoices
+WHERE invoice_number ~ '^FAC-[0-9]{4}-[0-9]+$'
+GROUP BY 1
+ON CONFLICT (sequence_year) DO UPDATE
+    SET last_value = GREATEST(invoice_number_sequences.last_value, EXCLUDED.last_value);
+
+-- Invoice numbers are unique. Databases created earlier have a plain idx_invoice_number that Hibernate would
+-- keep as is, so the unique index gets its own name and replaces it.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_invoice_number ON invoices (invoice_number);
+DROP INDEX IF EXISTS idx_invoice_number;
+
+-- Stored hash bucket of each invoice, leading the overdue scan index so that each scanner only reads its own
+-- buckets. Not mapped by the entity: the database computes it.
+-- Adding a stored generated column rewrites the whole table under an ACCESS EXCLUSIVE lock, which blocks
+-- reads and writes of invoices until it completes. It only happens once, on the first start of this version;
+-- on a large table, run this statement and the index below by hand in a maintenance window before deploying.
+ALTER TABLE invoices ADD COLUMN IF NOT EXISTS scan_bucket smallint
+    GENERATED ALWAYS AS (CAST((hashtext(CAST(id AS text)) & 2147483647) % 64 AS smallint)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_invoice_status_bucket_due ON invoices (status, scan_bucket, due_date, id)
+    INCLUDE (invoice_number, owner_user_id, client_name, client_email, total_ttc);
+
+-- Superseded by idx_invoice_status_bucket_due, which leads with the same column.
+DROP INDEX IF EXISTS idx_invoice_status_due;
+DROP INDEX IF EXISTS idx_invoice_status;
+
+-- notification-service takes invoice events on its internal path; rows queued for the former public path
+-- would otherwise never be claimed.
+UPDATE outbox_events SET subscriber = 'http://notification-service/internal/notifications/events'
+WHERE subscriber = 'http://notification-service/api/notifications/events';
@@ -0,0 +1,10 @@
+-- Gives ARGV[1] back to a monthly invoice counter, never going below zero. A counter that has expired is
+-- left alone: it will be read again from the database.
+-- Returns the count left, or -1 when there was no counter.
+local used = redis.call('GET', KEYS[1])
+if not used then
+  return -1
+end
+local left = math.max(0, tonumber(used) - tonumber(ARGV[1]))
+redis.call('SET', KEYS[1], left, 'KEEPTTL')
+return left
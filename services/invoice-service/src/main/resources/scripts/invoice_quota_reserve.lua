@@ -0,0 +1,20 @@
+-- Monthly invoice counter of one user: adds ARGV[2] unless that takes it over the quota ARGV[1].
+-- A missing counter is created from ARGV[4], the count read from the database, and expires after ARGV[3]
+-- seconds; when another instance created it first, its value wins. Without ARGV[4] a missing counter is
+-- only reported.
+-- Returns {status, used}: 1 reserved, 0 over the quota, -1 counter missing.
+local used = redis.call('GET', KEYS[1])
+if not used then
+  if ARGV[4] == '' then
+    return { -1, 0 }
+  end
+  used = ARGV[4]
+  redis.call('SET', KEYS[1], used, 'EX', ARGV[3])
+end
+used = tonumber(used)
+local amount = tonumber(ARGV[2])
+if used + amount > tonumber(ARGV[1]) then
+  return { 0, used }
+end
+redis.call('INCRBY', KEYS[1], amount)
+return { 1, used + amount }
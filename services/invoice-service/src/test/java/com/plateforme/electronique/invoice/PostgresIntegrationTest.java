@@ -0,0 +1,32 @@
+package com.plateforme.electronique.invoice;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Runs the service against a real PostgreSQL, shared by the test classes. Eureka, the outbox subscribers and
+ * Redis are left out: the quota falls back to the database when Redis cannot be reached. Skipped on machines
+ * without Docker.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class PostgresIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.data.redis.host", () -> "localhost");
+        registry.add("eureka.client.enabled", () -> "false");
+        registry.add("invoice.outbox.subscribers", () -> "");
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+}
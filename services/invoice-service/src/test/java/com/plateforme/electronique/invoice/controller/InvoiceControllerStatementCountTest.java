@@ -0,0 +1,102 @@
+package com.plateforme.electronique.invoice.controller;
+
+import com.plateforme.electronique.invoice.PostgresIntegrationTest;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The invoice list must not load the items of each row, and the detail must load the items with the invoice.
+ */
+@AutoConfigureMockMvc
+class InvoiceControllerStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int INVOICES = 25;
+    private static final int ITEMS_PER_INVOICE = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private UUID owner;
+    private List<Invoice> invoices;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createInvoices() {
+        owner = UUID.randomUUID();
+        List<Invoice> drafts = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            Invoice invoice = Invoice.builder()
+                    .ownerUserId(owner)
+                    .clientName("Client " + i)
+                    .clientEmail("client" + i + "@example.com")
+                    .subtotalHt(BigDecimal.valueOf(30))
+                    .vatAmount(BigDecimal.ZERO)
+                    .totalTtc(BigDecimal.valueOf(30))
+                    .issueDate(LocalDate.now())
+                    .build();
+            List<InvoiceItem> items = new ArrayList<>();
+            for (int j = 0; j < ITEMS_PER_INVOICE; j++) {
+                items.add(InvoiceItem.builder()
+                        .invoice(invoice)
+                        .description("Line " + j)
+                        .quantity(BigDecimal.ONE)
+                        .unitPrice(BigDecimal.TEN)
+                        .taxRate(BigDecimal.valueOf(19))
+                        .lineTotalHt(BigDecimal.TEN)
+                        .build());
+            }
+            invoice.setItems(items);
+            drafts.add(invoice);
+        }
+        invoices = invoiceRepository.saveAll(drafts);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listPageRunsTheDataAndCountQueriesOnly() throws Exception {
+        mockMvc.perform(get("/api/invoices").param("page", "0").param("size", "10")
+                        .header(InvoiceController.USER_ID_HEADER, owner.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(10))
+                .andExpect(jsonPath("$.totalElements").value(INVOICES));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void detailLoadsTheInvoiceAndItsItemsInOneQuery() throws Exception {
+        mockMvc.perform(get("/api/invoices/{id}", invoices.get(0).getId())
+                        .header(InvoiceController.USER_ID_HEADER, owner.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ITEMS_PER_INVOICE));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,76 @@
+package com.plateforme.electronique.invoice.controller;
+
+import com.plateforme.electronique.invoice.PostgresIntegrationTest;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A patch carrying a stale version is a conflict the client can retry, not a server error.
+ */
+@AutoConfigureMockMvc
+class InvoicePatchConflictTest extends PostgresIntegrationTest {
+
+    private static final String ADD_LINE = """
+            {"version": %d, "add": [{"description": "Support", "quantity": 1, "unitPrice": 50}]}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private UUID owner;
+    private Invoice invoice;
+
+    @BeforeEach
+    void createDraft() {
+        owner = UUID.randomUUID();
+        invoice = invoiceRepository.save(Invoice.builder()
+                .ownerUserId(owner)
+                .clientName("Client")
+                .clientEmail("client@example.com")
+                .subtotalHt(BigDecimal.ZERO)
+                .vatAmount(BigDecimal.ZERO)
+                .totalTtc(BigDecimal.ZERO)
+                .issueDate(LocalDate.now())
+                .items(new ArrayList<>())
+                .build());
+    }
+
+    @Test
+    void currentVersionIsApplied() throws Exception {
+        mockMvc.perform(patch("/api/invoices/{id}/items", invoice.getId())
+                        .header(InvoiceController.USER_ID_HEADER, owner.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ADD_LINE.formatted(invoice.getVersion())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(invoice.getVersion() + 1));
+    }
+
+    @Test
+    void staleVersionIsAConflictWithTheCurrentVersion() throws Exception {
+        mockMvc.perform(patch("/api/invoices/{id}/items", invoice.getId())
+                        .header(InvoiceController.USER_ID_HEADER, owner.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ADD_LINE.formatted(invoice.getVersion() + 5)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.id").value(invoice.getId().toString()))
+                .andExpect(jsonPath("$.currentVersion").value(invoice.getVersion()));
+    }
+}
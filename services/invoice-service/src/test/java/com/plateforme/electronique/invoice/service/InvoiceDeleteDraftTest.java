@@ -0,0 +1,95 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.PostgresIntegrationTest;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Deleting a draft gives it back to the monthly allowance exactly once, however many requests delete it.
+ */
+class InvoiceDeleteDraftTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private InvoiceQuota invoiceQuota;
+
+    @Test
+    void concurrentDeletesReleaseTheQuotaOnce() throws Exception {
+        UUID owner = UUID.randomUUID();
+        Invoice invoice = Invoice.builder()
+                .ownerUserId(owner)
+                .clientName("Client")
+                .subtotalHt(new BigDecimal("100"))
+                .vatAmount(new BigDecimal("19"))
+                .totalTtc(new BigDecimal("119"))
+                .issueDate(LocalDate.now())
+                .items(new ArrayList<>())
+                .vatBases(new HashMap<>(Map.of(new BigDecimal("19.00"), new BigDecimal("100"))))
+                .build();
+        invoice.getItems().add(InvoiceItem.builder()
+                .invoice(invoice)
+                .description("Conseil")
+                .quantity(BigDecimal.ONE)
+                .unitPrice(new BigDecimal("100"))
+                .taxRate(new BigDecimal("19"))
+                .build());
+        UUID id = invoiceRepository.save(invoice).getId();
+
+        int requests = 8;
+        List<Future<Boolean>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(requests)) {
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit((Callable<Boolean>) () -> {
+                    try {
+                        invoiceService.deleteDraft(id, owner);
+                        return true;
+                    } catch (IllegalArgumentException | IllegalStateException e) {
+                        return false;
+                    }
+                }));
+            }
+        }
+        long deleted = 0;
+        for (Future<Boolean> result : results) {
+            deleted += result.get() ? 1 : 0;
+        }
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(invoiceRepository.findById(id)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_items WHERE invoice_id = ?",
+                Long.class, id)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_vat_bases WHERE invoice_id = ?",
+                Long.class, id)).isZero();
+        verify(invoiceQuota, times(1)).release(owner, YearMonth.from(invoice.getCreatedAt()), 1);
+    }
+}
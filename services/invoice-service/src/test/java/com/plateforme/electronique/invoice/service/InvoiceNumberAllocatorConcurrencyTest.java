@@ -0,0 +1,101 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.PostgresIntegrationTest;
+import com.plateforme.electronique.invoice.entity.Invoice;
+import com.plateforme.electronique.invoice.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvoiceNumberAllocatorConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int INVOICES = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelValidationsGetDistinctConsecutiveNumbers() throws Exception {
+        UUID owner = UUID.randomUUID();
+        List<Invoice> drafts = new ArrayList<>();
+        for (int i = 0; i < INVOICES; i++) {
+            drafts.add(draft(owner));
+        }
+        List<UUID> ids = invoiceRepository.saveAll(drafts).stream().map(Invoice::getId).toList();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> numbers = new ArrayList<>();
+        try {
+            for (UUID id : ids) {
+                numbers.add(executor.submit(() -> {
+                    start.await();
+                    return invoiceService.validateInvoice(id, owner).getInvoiceNumber();
+                }));
+            }
+            start.countDown();
+            TreeSet<String> distinct = new TreeSet<>();
+            for (Future<String> number : numbers) {
+                distinct.add(number.get());
+            }
+
+            assertThat(distinct).hasSize(INVOICES);
+            String prefix = "FAC-" + LocalDate.now().getYear() + "-";
+            assertThat(distinct).allMatch(number -> number.startsWith(prefix));
+            long first = Long.parseLong(distinct.first().substring(prefix.length()));
+            long last = Long.parseLong(distinct.last().substring(prefix.length()));
+            assertThat(last - first + 1).as("numbers are gap-free").isEqualTo(INVOICES);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT invoice_number) FROM invoices "
+                + "WHERE owner_user_id = ?", Long.class, owner)).isEqualTo(INVOICES);
+    }
+
+    @Test
+    void databaseRejectsDuplicateNumbers() {
+        UUID owner = UUID.randomUUID();
+        Invoice first = invoiceRepository.save(draft(owner));
+        Invoice second = invoiceRepository.save(draft(owner));
+        jdbcTemplate.update("UPDATE invoices SET invoice_number = 'FAC-1999-00001' WHERE id = ?", first.getId());
+
+        assertThatThrownBy(() -> jdbcTemplate.update(
+                "UPDATE invoices SET invoice_number = 'FAC-1999-00001' WHERE id = ?", second.getId()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static Invoice draft(UUID owner) {
+        return Invoice.builder()
+                .ownerUserId(owner)
+                .clientName("Client")
+                .clientEmail("client@example.com")
+                .subtotalHt(BigDecimal.TEN)
+                .vatAmount(BigDecimal.ZERO)
+                .totalTtc(BigDecimal.TEN)
+                .issueDate(LocalDate.now())
+                .items(new ArrayList<>())
+                .build();
+    }
+}
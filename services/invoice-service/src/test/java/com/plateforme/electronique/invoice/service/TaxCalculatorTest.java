@@ -0,0 +1,165 @@
+package com.plateforme.electronique.invoice.service;
+
+import com.plateforme.electronique.invoice.dto.VatBreakdown;
+import com.plateforme.electronique.invoice.entity.InvoiceItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaxCalculatorTest {
+
+    private static final BigDecimal STANDARD_RATE = new BigDecimal("19.00");
+    private static final BigDecimal[] RATES = {
+            new BigDecimal("0.00"), new BigDecimal("7.00"), new BigDecimal("13.00"), STANDARD_RATE
+    };
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final TaxCalculator calculator = new TaxCalculator();
+
+    @Test
+    void roundsTheVatOncePerRate() {
+        List<InvoiceItem> items = List.of(
+                item("1.000", "0.0333", "19.00"),
+                item("1.000", "0.0333", "19.00"),
+                item("1.000", "0.0333", "19.00"),
+                item("2.000", "10.0000", "7.00"));
+
+        TaxBreakdown breakdown = calculator.computeLines(items, STANDARD_RATE);
+
+        // 0.0999 at 19 % is 0.018981, rounded once to 0.0190; 20.0000 at 7 % is 1.4000.
+        assertThat(breakdown.subtotalHt()).isEqualByComparingTo("20.0999");
+        assertThat(breakdown.vatAmount()).isEqualByComparingTo("1.4190");
+        assertThat(breakdown.totalTtc()).isEqualByComparingTo("21.5189");
+        assertThat(breakdown.rates()).extracting(rate -> rate.getRate().toPlainString())
+                .containsExactly("7.00", "19.00");
+    }
+
+    @Test
+    void matchesAPlainBigDecimalComputation() {
+        Random random = new Random(42);
+        for (int invoice = 0; invoice < 500; invoice++) {
+            List<InvoiceItem> items = randomItems(random, 1 + random.nextInt(200));
+
+            TaxBreakdown breakdown = calculator.computeLines(items, STANDARD_RATE);
+
+            assertThat(breakdown).isEqualTo(reference(items));
+        }
+    }
+
+    @Test
+    void fallsBackToBigDecimalWhenLongsOverflow() {
+        List<InvoiceItem> items = List.of(
+                item("9999999.999", "99999999999.9999", "19.00"),
+                item("9999999.999", "99999999999.9999", "19.00"));
+
+        TaxBreakdown breakdown = calculator.computeLines(items, STANDARD_RATE);
+
+        assertThat(breakdown).isEqualTo(reference(items));
+    }
+
+    @Test
+    void basesAdjustedByPatchesMatchTheBasesOfAllLines() {
+        Random random = new Random(7);
+        List<InvoiceItem> items = new ArrayList<>(randomItems(random, 1_000));
+        calculator.computeLines(items, STANDARD_RATE);
+        Map<BigDecimal, BigDecimal> bases = new HashMap<>();
+        items.forEach(item -> calculator.addLine(bases, item, STANDARD_RATE));
+
+        for (int patch = 0; patch < 200; patch++) {
+            InvoiceItem removed = items.remove(random.nextInt(items.size()));
+            calculator.removeLine(bases, removed, STANDARD_RATE);
+
+            InvoiceItem changed = items.get(random.nextInt(items.size()));
+            calculator.removeLine(bases, changed, STANDARD_RATE);
+            changed.setQuantity(BigDecimal.valueOf(1 + random.nextInt(100_000), 3));
+            changed.setTaxRate(RATES[random.nextInt(RATES.length)]);
+            calculator.computeLines(List.of(changed), STANDARD_RATE);
+            calculator.addLine(bases, changed, STANDARD_RATE);
+
+            List<InvoiceItem> added = randomItems(random, 2);
+            calculator.computeLines(added, STANDARD_RATE);
+            added.forEach(item -> calculator.addLine(bases, item, STANDARD_RATE));
+            items.addAll(added);
+        }
+
+        assertThat(calculator.fromBases(bases, STANDARD_RATE))
+                .isEqualTo(calculator.summarize(items, STANDARD_RATE));
+    }
+
+    @Test
+    void scaledLongsAreFasterThanBigDecimalArithmetic() {
+        List<InvoiceItem> items = randomItems(new Random(1), 10_000);
+        for (int warmUp = 0; warmUp < 20; warmUp++) {
+            calculator.computeLines(items, STANDARD_RATE);
+            reference(items);
+        }
+
+        long calculatorNanos = Long.MAX_VALUE;
+        long referenceNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            calculator.computeLines(items, STANDARD_RATE);
+            calculatorNanos = Math.min(calculatorNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            reference(items);
+            referenceNanos = Math.min(referenceNanos, System.nanoTime() - start);
+        }
+
+        System.out.printf("Totals of %d lines: %d us with scaled longs, %d us with BigDecimal%n",
+                items.size(), calculatorNanos / 1_000, referenceNanos / 1_000);
+        assertThat(calculatorNanos).isLessThan(referenceNanos);
+    }
+
+    private static List<InvoiceItem> randomItems(Random random, int count) {
+        List<InvoiceItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(InvoiceItem.builder()
+                    .description("Line " + i)
+                    .quantity(BigDecimal.valueOf(1 + random.nextInt(100_000), 3))
+                    .unitPrice(BigDecimal.valueOf(1 + random.nextInt(100_000_000), 4))
+                    .taxRate(RATES[random.nextInt(RATES.length)])
+                    .build());
+        }
+        return items;
+    }
+
+    private static InvoiceItem item(String quantity, String unitPrice, String taxRate) {
+        return InvoiceItem.builder()
+                .description("Line")
+                .quantity(new BigDecimal(quantity))
+                .unitPrice(new BigDecimal(unitPrice))
+                .taxRate(new BigDecimal(taxRate))
+                .build();
+    }
+
+    /**
+     * The same totals computed the straightforward way.
+     */
+    private static TaxBreakdown reference(List<InvoiceItem> items) {
+        Map<BigDecimal, BigDecimal> bases = new TreeMap<>();
+        for (InvoiceItem item : items) {
+            BigDecimal line = item.getQuantity().multiply(item.getUnitPrice()).setScale(4, RoundingMode.HALF_UP);
+            bases.merge(item.getTaxRate(), line, BigDecimal::add);
+        }
+        List<VatBreakdown> rates = new ArrayList<>();
+        BigDecimal subtotal = BigDecimal.ZERO.setScale(4);
+        BigDecimal vat = BigDecimal.ZERO.setScale(4);
+        for (Map.Entry<BigDecimal, BigDecimal> entry : bases.entrySet()) {
+            BigDecimal rateVat = entry.getValue().multiply(entry.getKey()).divide(HUNDRED, 4, RoundingMode.HALF_UP);
+            rates.add(new VatBreakdown(entry.getKey(), entry.getValue(), rateVat));
+            subtotal = subtotal.add(entry.getValue());
+            vat = vat.add(rateVat);
+        }
+        return new TaxBreakdown(subtotal, vat, subtotal.add(vat), rates);
+    }
+}
@@ -0,0 +1,29 @@
+package com.plateforme.electronique.notification.client;
+
+import com.plateforme.electronique.notification.dto.OverdueInvoice;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@FeignClient(name = "invoice-service", path = "/internal/invoices")
+public interface InvoiceClient {
+
+    /**
+     * Number of scan buckets of the overdue invoices, as defined by invoice-service.
+     */
+    int SCAN_BUCKETS = 64;
+
+    @GetMapping("/overdue")
+    List<OverdueInvoice> findOverdue(@RequestParam("status") String status,
+                                     @RequestParam("bucket") int bucket,
+                                     @RequestParam("dueBefore") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dueBefore,
+                                     @RequestParam(value = "afterDueDate", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDueDate,
+                                     @RequestParam(value = "afterId", required = false) UUID afterId,
+                                     @RequestParam("limit") int limit);
+}
@@ -0,0 +1,82 @@
+package com.plateforme.electronique.notification.config;
+
+import com.plateforme.electronique.notification.client.InvoiceClient;
+import com.plateforme.electronique.notification.service.OverdueReminderJob;
+import com.plateforme.electronique.notification.service.OverdueReminderScanner;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.quartz.SchedulerFactoryBeanCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+@Configuration
+@Slf4j
+public class ReminderSchedulingConfig {
+
+    private final int partitions;
+    private final String cron;
+
+    public ReminderSchedulingConfig(@Value("${notification.reminders.partitions:4}") int partitions,
+                                    @Value("${notification.reminders.cron:0 0 7 * * ?}") String cron) {
+        this.partitions = Math.max(1, Math.min(partitions, InvoiceClient.SCAN_BUCKETS));
+        this.cron = cron;
+    }
+
+    /**
+     * One durable job and cron trigger per partition of the overdue scan.
+     */
+    @Bean
+    public SchedulerFactoryBeanCustomizer overdueReminderJobs() {
+        return factory -> {
+            JobDetail[] jobs = new JobDetail[partitions];
+            Trigger[] triggers = new Trigger[partitions];
+            for (int partition = 0; partition < partitions; partition++) {
+                jobs[partition] = JobBuilder.newJob(OverdueReminderJob.class)
+                        .withIdentity(jobKey(partition))
+                        .usingJobData("partition", partition)
+                        .usingJobData("partitions", partitions)
+                        .storeDurably()
+                        .requestRecovery()
+                        .build();
+                triggers[partition] = TriggerBuilder.newTrigger()
+                        .forJob(jobs[partition])
+                        .withIdentity(jobKey(partition).getName(), OverdueReminderScanner.JOB_GROUP)
+                        .withSchedule(CronScheduleBuilder.cronSchedule(cron).withMisfireHandlingInstructionFireAndProceed())
+                        .build();
+            }
+            factory.setJobDetails(jobs);
+            factory.setTriggers(triggers);
+        };
+    }
+
+    /**
+     * Removes the jobs of partitions that no longer exist after the partition count was lowered.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void removeStalePartitions(ApplicationReadyEvent event) throws SchedulerException {
+        Scheduler scheduler = event.getApplicationContext().getBean(Scheduler.class);
+        for (JobKey job : scheduler.getJobKeys(GroupMatcher.jobGroupEquals(OverdueReminderScanner.JOB_GROUP))) {
+            String name = job.getName();
+            int partition = Integer.parseInt(name.substring(name.lastIndexOf('-') + 1));
+            if (partition >= partitions) {
+                scheduler.deleteJob(job);
+                log.info("Removed stale overdue reminder job {}", job);
+            }
+        }
+    }
+
+    private static JobKey jobKey(int partition) {
+        return JobKey.jobKey("partition-" + partition, OverdueReminderScanner.JOB_GROUP);
+    }
+}
@@ -0,0 +1,41 @@
+package com.plateforme.electronique.notification.controller;
+
+import com.plateforme.electronique.notification.dto.InvoiceEventMessage;
+import com.plateforme.electronique.notification.service.NotificationService;
+import com.plateforme.electronique.notification.service.OverdueReminderScanner;
+import org.quartz.SchedulerException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoints for the other services. They are not routed by the gateway.
+ */
+@RestController
+@RequestMapping("/internal/notifications")
+public class InternalNotificationController {
+
+    private final NotificationService notificationService;
+    private final OverdueReminderScanner reminderScanner;
+
+    public InternalNotificationController(NotificationService notificationService,
+                                          OverdueReminderScanner reminderScanner) {
+        this.notificationService = notificationService;
+        this.reminderScanner = reminderScanner;
+    }
+
+    /**
+     * Invoice lifecycle events delivered by the outbox of invoice-service.
+     */
+    @PostMapping("/events")
+    public ResponseEntity<Map<String, Integer>> invoiceEvents(@RequestBody List<InvoiceEventMessage> events) {
+        return ResponseEntity.ok(Map.of("queued", notificationService.enqueueInvoiceEvents(events)));
+    }
+
+    @PostMapping("/reminders/scan")
+    public ResponseEntity<Map<String, Integer>> scanOverdue() throws SchedulerException {
+        return ResponseEntity.accepted().body(Map.of("triggeredJobs", reminderScanner.triggerNow()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.plateforme.electronique.notification.controller;
+
+import com.plateforme.electronique.notification.dto.NotificationStats;
+import com.plateforme.electronique.notification.dto.SendNotificationRequest;
+import com.plateforme.electronique.notification.entity.Notification;
+import com.plateforme.electronique.notification.service.NotificationService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/notifications")
+public class NotificationController {
+
+    /**
+     * Id of the user the notification is sent for, recorded with it.
+     */
+    static final String USER_ID_HEADER = "X-User-Id";
+
+    private final NotificationService notificationService;
+
+    public NotificationController(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, UUID>> send(@RequestHeader(USER_ID_HEADER) UUID requestedBy,
+                                                  @Valid @RequestBody SendNotificationRequest request) {
+        return ResponseEntity.accepted().body(Map.of("id", notificationService.enqueue(requestedBy, request)));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<NotificationStats> stats() {
+        return ResponseEntity.ok(notificationService.stats());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Notification> detail(@PathVariable UUID id) {
+        return ResponseEntity.of(notificationService.find(id));
+    }
+}
@@ -0,0 +1,36 @@
+package com.plateforme.electronique.notification.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Invoice lifecycle event as delivered by the invoice-service outbox.
+ */
+@Data
+public class InvoiceEventMessage {
+    private long id;
+    private String type;
+    private UUID aggregateId;
+    private LocalDateTime occurredAt;
+    private Payload payload;
+
+    @Data
+    public static class Payload {
+        private UUID invoiceId;
+        private UUID ownerUserId;
+        private String invoiceNumber;
+        private String status;
+        /**
+         * Status before the change that raised the event.
+         */
+        private String previousStatus;
+        private String clientName;
+        private String clientEmail;
+        private BigDecimal totalTtc;
+        private LocalDate issueDate;
+        private LocalDate dueDate;
+    }
+}
@@ -0,0 +1,16 @@
+package com.plateforme.electronique.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class NotificationStats {
+    private Map<String, Long> countByStatus;
+    private long queueLagSeconds;
+    private double messagesPerSecond;
+    private long sentSinceStart;
+    private long failedAttemptsSinceStart;
+    private long deferredSinceStart;
+}
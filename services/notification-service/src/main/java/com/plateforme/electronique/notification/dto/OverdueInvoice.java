@@ -0,0 +1,18 @@
+package com.plateforme.electronique.notification.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+public class OverdueInvoice {
+    private UUID id;
+    private String invoiceNumber;
+    private UUID ownerUserId;
+    private String clientName;
+    private String clientEmail;
+    private BigDecimal totalTtc;
+    private LocalDate dueDate;
+    private String status;
+}
@@ -0,0 +1,28 @@
+package com.plateforme.electronique.notification.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+public class SendNotificationRequest {
+
+    @NotBlank
+    @Email
+    private String recipient;
+
+    @NotBlank
+    private String template;
+
+    @NotBlank
+    @Size(max = 255)
+    private String subject;
+
+    private Map<String, Object> variables = new HashMap<>();
+
+    @Size(max = 100)
+    private String dedupeKey;
+}
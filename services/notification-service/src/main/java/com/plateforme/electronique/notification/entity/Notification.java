@@ -0,0 +1,75 @@
+package com.plateforme.electronique.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "notifications", indexes = {
+    @Index(name = "idx_notification_due", columnList = "status, nextAttemptAt"),
+    @Index(name = "idx_notification_dedupe", columnList = "dedupeKey", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(of = "id")
+public class Notification {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false, length = 255)
+    private String recipient;
+
+    @Column(nullable = false, length = 100)
+    private String template;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    @Column(columnDefinition = "text")
+    private String variables;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * User who asked for the notification through the API; null for those queued from invoice events.
+     */
+    @Column(name = "requested_by")
+    private UUID requestedBy;
+
+    @Column(name = "dedupe_key", length = 100)
+    private String dedupeKey;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        FAILED
+    }
+}
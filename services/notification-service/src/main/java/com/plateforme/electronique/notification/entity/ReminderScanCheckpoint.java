@@ -0,0 +1,45 @@
+package com.plateforme.electronique.notification.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Position of the overdue scan of one invoice status and scan bucket, committed with the reminders of each
+ * page so that an interrupted scan resumes where it stopped.
+ */
+@Entity
+@Table(name = "reminder_scan_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReminderScanCheckpoint {
+
+    @Id
+    @Column(name = "scan_key", length = 50)
+    private String scanKey;
+
+    @Column(name = "scan_date", nullable = false)
+    private LocalDate scanDate;
+
+    @Column(name = "last_due_date")
+    private LocalDate lastDueDate;
+
+    @Column(name = "last_invoice_id")
+    private UUID lastInvoiceId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = false)
+    private long scanned;
+
+    @Column(nullable = false)
+    private long queued;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,94 @@
+package com.plateforme.electronique.notification.repository;
+
+import com.plateforme.electronique.notification.entity.Notification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+
+    /**
+     * Queues a notification unless one with the same dedupe key already exists. Returns the number of
+     * rows inserted.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notifications (id, recipient, template, subject, variables, status, attempts, "
+            + "next_attempt_at, requested_by, dedupe_key, created_at) "
+            + "VALUES (:id, :recipient, :template, :subject, :variables, 'PENDING', 0, :now, "
+            + "CAST(:requestedBy AS uuid), :dedupeKey, :now) "
+            + "ON CONFLICT (dedupe_key) DO NOTHING", nativeQuery = true)
+    int enqueue(@Param("id") UUID id,
+                @Param("recipient") String recipient,
+                @Param("template") String template,
+                @Param("subject") String subject,
+                @Param("variables") String variables,
+                @Param("requestedBy") UUID requestedBy,
+                @Param("dedupeKey") String dedupeKey,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * Moves the oldest due notifications to SENDING and returns them. Rows locked by another dispatcher are
+     * skipped, so several instances share the queue without sending a message twice.
+     */
+    @Query(value = "UPDATE notifications SET status = 'SENDING', claimed_at = :now WHERE id IN ("
+            + "SELECT id FROM notifications WHERE status = 'PENDING' AND next_attempt_at <= :now "
+            + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<Notification> claim(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update Notification n set n.status = :status, n.sentAt = :now, n.claimedAt = null, n.lastError = null "
+            + "where n.id in :ids")
+    int markSent(@Param("ids") Collection<UUID> ids,
+                 @Param("status") Notification.Status status,
+                 @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update Notification n set n.status = :status, n.attempts = n.attempts + 1, n.nextAttemptAt = :next, "
+            + "n.lastError = :error, n.claimedAt = null where n.id = :id")
+    int markAttemptFailed(@Param("id") UUID id,
+                          @Param("status") Notification.Status status,
+                          @Param("next") LocalDateTime next,
+                          @Param("error") String error);
+
+    /**
+     * Puts claimed notifications back in the queue without counting an attempt.
+     */
+    @Modifying
+    @Query("update Notification n set n.status = :status, n.nextAttemptAt = :next, n.claimedAt = null "
+            + "where n.id in :ids")
+    int defer(@Param("ids") Collection<UUID> ids,
+              @Param("status") Notification.Status status,
+              @Param("next") LocalDateTime next);
+
+    /**
+     * Releases notifications whose dispatcher died while sending them.
+     */
+    @Modifying
+    @Query("update Notification n set n.status = :pending, n.claimedAt = null "
+            + "where n.status = :sending and n.claimedAt < :cutoff")
+    int releaseExpiredClaims(@Param("pending") Notification.Status pending,
+                             @Param("sending") Notification.Status sending,
+                             @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("select n.status as status, count(n) as total from Notification n group by n.status")
+    List<StatusCount> countByStatus();
+
+    @Query("select min(n.nextAttemptAt) from Notification n where n.status = :status and n.nextAttemptAt <= :now")
+    Optional<LocalDateTime> findOldestDue(@Param("status") Notification.Status status, @Param("now") LocalDateTime now);
+
+    Optional<Notification> findByDedupeKey(String dedupeKey);
+
+    interface StatusCount {
+        Notification.Status getStatus();
+
+        long getTotal();
+    }
+}
@@ -0,0 +1,9 @@
+package com.plateforme.electronique.notification.repository;
+
+import com.plateforme.electronique.notification.entity.ReminderScanCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReminderScanCheckpointRepository extends JpaRepository<ReminderScanCheckpoint, String> {
+}
@@ -0,0 +1,66 @@
+package com.plateforme.electronique.notification.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory counters of this instance, with the sent rate over a sliding window of one minute.
+ */
+@Component
+public class DispatchMetrics {
+
+    private static final int WINDOW_SECONDS = 60;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final long[] sentPerSecond = new long[WINDOW_SECONDS];
+    private final long[] slotSecond = new long[WINDOW_SECONDS];
+
+    public void recordSent(int count) {
+        sent.add(count);
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        synchronized (sentPerSecond) {
+            if (slotSecond[slot] != second) {
+                slotSecond[slot] = second;
+                sentPerSecond[slot] = 0;
+            }
+            sentPerSecond[slot] += count;
+        }
+    }
+
+    public void recordFailedAttempt() {
+        failedAttempts.increment();
+    }
+
+    public void recordDeferred(int count) {
+        deferred.add(count);
+    }
+
+    public double messagesPerSecond() {
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        synchronized (sentPerSecond) {
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                if (now - slotSecond[i] < WINDOW_SECONDS) {
+                    total += sentPerSecond[i];
+                }
+            }
+        }
+        return total / (double) WINDOW_SECONDS;
+    }
+
+    public long sent() {
+        return sent.sum();
+    }
+
+    public long failedAttempts() {
+        return failedAttempts.sum();
+    }
+
+    public long deferred() {
+        return deferred.sum();
+    }
+}
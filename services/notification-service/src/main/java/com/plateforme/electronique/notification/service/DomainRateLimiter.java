@@ -0,0 +1,76 @@
+package com.plateforme.electronique.notification.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per recipient domain, so that a burst towards one provider does not get the platform
+ * throttled or flagged by it.
+ *
+ * <p>The buckets live in the memory of each instance: with N dispatching instances a domain receives up to
+ * N times the configured rate, so {@code notification.rate-limit.*} must be set to the provider's limit
+ * divided by the number of instances.
+ */
+@Component
+public class DomainRateLimiter {
+
+    private static final int MAX_TRACKED_DOMAINS = 10_000;
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public DomainRateLimiter(@Value("${notification.rate-limit.per-domain-per-second:20}") double permitsPerSecond,
+                             @Value("${notification.rate-limit.burst:40}") double burst) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1, burst);
+    }
+
+    /**
+     * Takes one permit for the recipient's domain. Returns 0 when granted, otherwise the number of
+     * milliseconds until a permit is available.
+     */
+    public long tryAcquire(String recipient) {
+        if (buckets.size() > MAX_TRACKED_DOMAINS) {
+            long now = System.nanoTime();
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(domainOf(recipient), domain -> new Bucket()).tryAcquire(System.nanoTime());
+    }
+
+    static String domainOf(String recipient) {
+        int at = recipient.lastIndexOf('@');
+        return (at < 0 ? recipient : recipient.substring(at + 1)).toLowerCase(Locale.ROOT);
+    }
+
+    private final class Bucket {
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+
+        synchronized long tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            double missing = 1 - tokens;
+            return Math.max(1, (long) Math.ceil(missing / permitsPerSecond * 1000));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            double elapsedSeconds = (now - refilledAt) / (double) TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(burst, tokens + elapsedSeconds * permitsPerSecond);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.plateforme.electronique.notification.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Renders the mail bodies from the Thymeleaf templates under {@code templates/mail}. Thymeleaf keeps parsed
+ * templates in its cache; they are all parsed once at startup so the first sends do not pay for it.
+ */
+@Component
+@Slf4j
+public class MailTemplateRenderer {
+
+    private static final String LOCATION = "classpath:templates/mail/*.html";
+    private static final String PREFIX = "mail/";
+
+    private final ITemplateEngine templateEngine;
+    private final Set<String> templates;
+
+    public MailTemplateRenderer(ITemplateEngine templateEngine, ResourcePatternResolver resolver) throws IOException {
+        this.templateEngine = templateEngine;
+        this.templates = Arrays.stream(resolver.getResources(LOCATION))
+                .map(Resource::getFilename)
+                .filter(Objects::nonNull)
+                .map(name -> name.substring(0, name.length() - ".html".length()))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean exists(String template) {
+        return templates.contains(template);
+    }
+
+    public String render(String template, Map<String, Object> variables) {
+        if (!exists(template)) {
+            throw new IllegalArgumentException("Unknown template " + template);
+        }
+        return templateEngine.process(PREFIX + template, new Context(null, variables));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (String template : templates) {
+            templateEngine.process(PREFIX + template, new Context());
+        }
+        log.info("Mail templates loaded: {}", templates);
+    }
+}
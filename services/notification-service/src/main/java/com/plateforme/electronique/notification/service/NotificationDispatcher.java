@@ -0,0 +1,226 @@
+package com.plateforme.electronique.notification.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateforme.electronique.notification.entity.Notification;
+import com.plateforme.electronique.notification.repository.NotificationRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Drains the notification queue. Due notifications are claimed in batches, filtered through the per-domain
+ * rate limit, then sent in groups over one SMTP connection per group. Groups run on virtual threads and a
+ * semaphore caps the number of simultaneous SMTP connections. Failed messages are retried with an
+ * exponential backoff until the attempts are exhausted.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final TypeReference<Map<String, Object>> VARIABLES = new TypeReference<>() {
+    };
+
+    private final NotificationRepository notificationRepository;
+    private final JavaMailSender mailSender;
+    private final MailTemplateRenderer templateRenderer;
+    private final DomainRateLimiter rateLimiter;
+    private final DispatchMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore connections;
+    private final String from;
+    private final int batchSize;
+    private final int messagesPerConnection;
+    private final int maxAttempts;
+    private final long initialBackoffSeconds;
+    private final long maxBackoffSeconds;
+    private final long claimLeaseSeconds;
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  JavaMailSender mailSender,
+                                  MailTemplateRenderer templateRenderer,
+                                  DomainRateLimiter rateLimiter,
+                                  DispatchMetrics metrics,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${notification.mail.from}") String from,
+                                  @Value("${notification.dispatch.batch-size:200}") int batchSize,
+                                  @Value("${notification.dispatch.claim-lease-seconds:300}") long claimLeaseSeconds,
+                                  @Value("${notification.smtp.max-connections:4}") int maxConnections,
+                                  @Value("${notification.smtp.messages-per-connection:50}") int messagesPerConnection,
+                                  @Value("${notification.retry.max-attempts:5}") int maxAttempts,
+                                  @Value("${notification.retry.initial-backoff-seconds:30}") long initialBackoffSeconds,
+                                  @Value("${notification.retry.max-backoff-seconds:3600}") long maxBackoffSeconds) {
+        this.notificationRepository = notificationRepository;
+        this.mailSender = mailSender;
+        this.templateRenderer = templateRenderer;
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.connections = new Semaphore(maxConnections);
+        this.from = from;
+        this.batchSize = batchSize;
+        this.claimLeaseSeconds = claimLeaseSeconds;
+        this.messagesPerConnection = messagesPerConnection;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffSeconds = initialBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dispatch.poll-interval-millis:500}")
+    public void dispatch() {
+        List<Notification> claimed;
+        do {
+            claimed = transactionTemplate.execute(status ->
+                    notificationRepository.claim(LocalDateTime.now(), batchSize));
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+            send(throttle(claimed));
+        } while (claimed.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.dispatch.claim-sweep-interval-millis:60000}")
+    public void releaseExpiredClaims() {
+        Integer released = transactionTemplate.execute(status -> notificationRepository.releaseExpiredClaims(
+                Notification.Status.PENDING, Notification.Status.SENDING,
+                LocalDateTime.now().minusSeconds(claimLeaseSeconds)));
+        if (released != null && released > 0) {
+            log.warn("Released {} notifications left in SENDING by a stopped dispatcher", released);
+        }
+    }
+
+    /**
+     * Returns the notifications allowed by the rate limit and puts the others back in the queue, due when
+     * their domain has a permit again.
+     */
+    private List<Notification> throttle(List<Notification> claimed) {
+        List<Notification> allowed = new ArrayList<>(claimed.size());
+        Map<Long, List<UUID>> deferredByDelay = new HashMap<>();
+        for (Notification notification : claimed) {
+            long waitMillis = rateLimiter.tryAcquire(notification.getRecipient());
+            if (waitMillis == 0) {
+                allowed.add(notification);
+            } else {
+                deferredByDelay.computeIfAbsent(waitMillis, delay -> new ArrayList<>()).add(notification.getId());
+            }
+        }
+        if (!deferredByDelay.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> deferredByDelay.forEach((delay, ids) ->
+                    notificationRepository.defer(ids, Notification.Status.PENDING, now.plusNanos(delay * 1_000_000))));
+            metrics.recordDeferred(claimed.size() - allowed.size());
+        }
+        return allowed;
+    }
+
+    private void send(List<Notification> notifications) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int start = 0; start < notifications.size(); start += messagesPerConnection) {
+                List<Notification> group = notifications.subList(start,
+                        Math.min(start + messagesPerConnection, notifications.size()));
+                executor.submit(() -> sendGroup(group));
+            }
+        }
+    }
+
+    private void sendGroup(List<Notification> group) {
+        Map<MimeMessage, Notification> messages = new IdentityHashMap<>();
+        for (Notification notification : group) {
+            try {
+                messages.put(toMessage(notification), notification);
+            } catch (Exception e) {
+                log.warn("Notification {} cannot be rendered: {}", notification.getId(), e.getMessage());
+                recordFailure(notification, e, false);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+        Map<Object, Exception> failed = new IdentityHashMap<>();
+        try {
+            connections.acquire();
+            try {
+                mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } finally {
+                connections.release();
+            }
+        } catch (MailSendException e) {
+            failed.putAll(e.getFailedMessages());
+            if (failed.isEmpty()) {
+                messages.keySet().forEach(message -> failed.put(message, e));
+            }
+        } catch (MailException e) {
+            messages.keySet().forEach(message -> failed.put(message, e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        List<UUID> sent = new ArrayList<>(messages.size());
+        messages.forEach((message, notification) -> {
+            Exception error = failed.get(message);
+            if (error == null) {
+                sent.add(notification.getId());
+            } else {
+                recordFailure(notification, error, true);
+            }
+        });
+        if (!sent.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    notificationRepository.markSent(sent, Notification.Status.SENT, LocalDateTime.now()));
+            metrics.recordSent(sent.size());
+        }
+    }
+
+    private MimeMessage toMessage(Notification notification) throws MessagingException, IOException {
+        Map<String, Object> variables = notification.getVariables() == null ? Map.of()
+                : objectMapper.readValue(notification.getVariables(), VARIABLES);
+        String body = templateRenderer.render(notification.getTemplate(), variables);
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(notification.getRecipient());
+        helper.setSubject(notification.getSubject());
+        helper.setText(body, true);
+        return message;
+    }
+
+    private void recordFailure(Notification notification, Exception error, boolean retryable) {
+        int attempts = notification.getAttempts() + 1;
+        boolean exhausted = !retryable || attempts >= maxAttempts;
+        long backoff = Math.min(maxBackoffSeconds, initialBackoffSeconds << Math.min(attempts - 1, 20));
+        String message = String.valueOf(error.getMessage());
+        transactionTemplate.executeWithoutResult(status -> notificationRepository.markAttemptFailed(
+                notification.getId(),
+                exhausted ? Notification.Status.FAILED : Notification.Status.PENDING,
+                LocalDateTime.now().plusSeconds(backoff),
+                message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message));
+        metrics.recordFailedAttempt();
+    }
+}
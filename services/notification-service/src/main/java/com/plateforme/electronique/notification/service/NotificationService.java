@@ -0,0 +1,159 @@
+package com.plateforme.electronique.notification.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateforme.electronique.notification.dto.InvoiceEventMessage;
+import com.plateforme.electronique.notification.dto.NotificationStats;
+import com.plateforme.electronique.notification.dto.SendNotificationRequest;
+import com.plateforme.electronique.notification.entity.Notification;
+import com.plateforme.electronique.notification.repository.NotificationRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class NotificationService {
+
+    private final NotificationRepository notificationRepository;
+    private final MailTemplateRenderer templateRenderer;
+    private final DispatchMetrics metrics;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                               MailTemplateRenderer templateRenderer,
+                               DispatchMetrics metrics,
+                               ObjectMapper objectMapper,
+                               JdbcTemplate jdbcTemplate) {
+        this.notificationRepository = notificationRepository;
+        this.templateRenderer = templateRenderer;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queues a notification and returns its id, or the id of the notification already queued with the same
+     * dedupe key.
+     */
+    @Transactional
+    public UUID enqueue(UUID requestedBy, SendNotificationRequest request) {
+        if (!templateRenderer.exists(request.getTemplate())) {
+            throw new IllegalArgumentException("Unknown template " + request.getTemplate());
+        }
+        UUID id = UUID.randomUUID();
+        int inserted = notificationRepository.enqueue(id, request.getRecipient(), request.getTemplate(),
+                request.getSubject(), toJson(request.getVariables()), requestedBy, request.getDedupeKey(),
+                LocalDateTime.now());
+        if (inserted == 0) {
+            return notificationRepository.findByDedupeKey(request.getDedupeKey())
+                    .map(Notification::getId)
+                    .orElseThrow(() -> new IllegalStateException("Notification not found"));
+        }
+        return id;
+    }
+
+    /**
+     * Turns invoice lifecycle events into client notifications. Events are keyed by their outbox id, so a
+     * redelivered batch queues nothing new. Cancellations are only announced for invoices the client was
+     * sent; drafts and invoices that were merely validated never reached them. Returns the number of
+     * notifications queued.
+     */
+    @Transactional
+    public int enqueueInvoiceEvents(List<InvoiceEventMessage> events) {
+        int queued = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (InvoiceEventMessage event : events) {
+            InvoiceEventMessage.Payload invoice = event.getPayload();
+            String subject = switch (event.getType()) {
+                case "invoice.sent" -> "Facture " + invoice.getInvoiceNumber();
+                case "invoice.cancelled" -> "SENT".equals(invoice.getPreviousStatus())
+                        ? "Annulation de la facture " + invoice.getInvoiceNumber() : null;
+                default -> null;
+            };
+            if (subject == null || invoice.getInvoiceNumber() == null
+                    || invoice.getClientEmail() == null || invoice.getClientEmail().isBlank()) {
+                continue;
+            }
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("invoiceNumber", invoice.getInvoiceNumber());
+            variables.put("clientName", invoice.getClientName());
+            variables.put("totalTtc", invoice.getTotalTtc());
+            variables.put("issueDate", invoice.getIssueDate());
+            variables.put("dueDate", invoice.getDueDate());
+            String template = event.getType().replace('.', '-');
+            queued += notificationRepository.enqueue(UUID.randomUUID(), invoice.getClientEmail(), template, subject,
+                    toJson(variables), null, "invoice-event:" + event.getId(), now);
+        }
+        return queued;
+    }
+
+    /**
+     * Queues many notifications in one JDBC batch, skipping those whose dedupe key is already queued. Returns
+     * the number of notifications queued.
+     */
+    @Transactional
+    public int enqueueBatch(List<SendNotificationRequest> requests) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] counts = jdbcTemplate.batchUpdate("INSERT INTO notifications (id, recipient, template, subject, "
+                        + "variables, status, attempts, next_attempt_at, dedupe_key, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?, ?) ON CONFLICT (dedupe_key) DO NOTHING",
+                requests, requests.size(), (statement, request) -> {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, request.getRecipient());
+                    statement.setString(3, request.getTemplate());
+                    statement.setString(4, request.getSubject());
+                    statement.setString(5, toJson(request.getVariables()));
+                    statement.setTimestamp(6, now);
+                    statement.setString(7, request.getDedupeKey());
+                    statement.setTimestamp(8, now);
+                });
+        int queued = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                queued += Math.max(count, 0);
+            }
+        }
+        return queued;
+    }
+
+    public Optional<Notification> find(UUID id) {
+        return notificationRepository.findById(id);
+    }
+
+    public NotificationStats stats() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Notification.Status status : Notification.Status.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (NotificationRepository.StatusCount row : notificationRepository.countByStatus()) {
+            counts.put(row.getStatus().name(), row.getTotal());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long lag = notificationRepository.findOldestDue(Notification.Status.PENDING, now)
+                .map(oldest -> Duration.between(oldest, now).toSeconds())
+                .orElse(0L);
+        return new NotificationStats(counts, lag, metrics.messagesPerSecond(), metrics.sent(),
+                metrics.failedAttempts(), metrics.deferred());
+    }
+
+    private String toJson(Map<String, Object> variables) {
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid notification variables", e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.plateforme.electronique.notification.service;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Scans one partition of the overdue invoices. There is one job per partition; with the clustered job store
+ * each firing runs on a single instance, and the partitions are spread over the instances.
+ */
+@DisallowConcurrentExecution
+public class OverdueReminderJob extends QuartzJobBean {
+
+    private final OverdueReminderScanner scanner;
+    private int partition;
+    private int partitions = 1;
+
+    public OverdueReminderJob(OverdueReminderScanner scanner) {
+        this.scanner = scanner;
+    }
+
+    public void setPartition(int partition) {
+        this.partition = partition;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    @Override
+    protected void executeInternal(JobExecutionContext context) {
+        scanner.scan(partition, partitions);
+    }
+}
@@ -0,0 +1,135 @@
+package com.plateforme.electronique.notification.service;
+
+import com.plateforme.electronique.notification.client.InvoiceClient;
+import com.plateforme.electronique.notification.dto.OverdueInvoice;
+import com.plateforme.electronique.notification.dto.SendNotificationRequest;
+import com.plateforme.electronique.notification.entity.ReminderScanCheckpoint;
+import com.plateforme.electronique.notification.repository.ReminderScanCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Queues reminders for invoices past their due date that are still VALIDATED or SENT.
+ *
+ * <p>Invoices are read page by page in (due date, id) order through the invoice-service keyset endpoint, so
+ * memory does not depend on the number of invoices. A partition scans the invoice-service scan buckets whose
+ * number modulo the partition count is its own, one bucket after the other. Each page's reminders are queued in one batch, in the
+ * transaction that moves the checkpoint forward: a scan stopped midway resumes after the last committed page.
+ * An invoice gets at most one reminder per {@code interval-days} of delay, enforced by the dedupe key, so
+ * rescans and overlapping instances never send duplicates.
+ */
+@Service
+@Slf4j
+public class OverdueReminderScanner {
+
+    public static final String JOB_GROUP = "overdue-reminders";
+    private static final List<String> STATUSES = List.of("VALIDATED", "SENT");
+
+    private final InvoiceClient invoiceClient;
+    private final NotificationService notificationService;
+    private final ReminderScanCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler scheduler;
+    private final int pageSize;
+    private final int intervalDays;
+
+    public OverdueReminderScanner(InvoiceClient invoiceClient,
+                                  NotificationService notificationService,
+                                  ReminderScanCheckpointRepository checkpointRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  Scheduler scheduler,
+                                  @Value("${notification.reminders.page-size:1000}") int pageSize,
+                                  @Value("${notification.reminders.interval-days:7}") int intervalDays) {
+        this.invoiceClient = invoiceClient;
+        this.notificationService = notificationService;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scheduler = scheduler;
+        this.pageSize = pageSize;
+        this.intervalDays = Math.max(1, intervalDays);
+    }
+
+    public void scan(int partition, int partitions) {
+        for (int bucket = partition; bucket < InvoiceClient.SCAN_BUCKETS; bucket += partitions) {
+            scanBucket(bucket);
+        }
+    }
+
+    private void scanBucket(int bucket) {
+        LocalDate today = LocalDate.now();
+        for (String status : STATUSES) {
+            String key = status + ":" + bucket;
+            ReminderScanCheckpoint checkpoint = checkpointRepository.findById(key)
+                    .filter(existing -> today.equals(existing.getScanDate()))
+                    .orElseGet(() -> ReminderScanCheckpoint.builder().scanKey(key).scanDate(today).build());
+            long started = System.nanoTime();
+            while (!checkpoint.isCompleted()) {
+                List<OverdueInvoice> page = invoiceClient.findOverdue(status, bucket, today,
+                        checkpoint.getLastDueDate(), checkpoint.getLastInvoiceId(), pageSize);
+                List<SendNotificationRequest> reminders = page.stream()
+                        .filter(invoice -> invoice.getClientEmail() != null && !invoice.getClientEmail().isBlank())
+                        .map(invoice -> reminder(invoice, today))
+                        .toList();
+                ReminderScanCheckpoint current = checkpoint;
+                checkpoint = transactionTemplate.execute(tx -> {
+                    int queued = notificationService.enqueueBatch(reminders);
+                    if (!page.isEmpty()) {
+                        OverdueInvoice last = page.get(page.size() - 1);
+                        current.setLastDueDate(last.getDueDate());
+                        current.setLastInvoiceId(last.getId());
+                    }
+                    current.setCompleted(page.size() < pageSize);
+                    current.setScanned(current.getScanned() + page.size());
+                    current.setQueued(current.getQueued() + queued);
+                    current.setUpdatedAt(LocalDateTime.now());
+                    return checkpointRepository.save(current);
+                });
+            }
+            log.info("Overdue scan {} done: {} invoices, {} reminders queued in {} ms", key, checkpoint.getScanned(),
+                    checkpoint.getQueued(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Fires every partition job now instead of waiting for the schedule.
+     */
+    public int triggerNow() throws SchedulerException {
+        List<JobKey> jobs = new ArrayList<>(scheduler.getJobKeys(GroupMatcher.jobGroupEquals(JOB_GROUP)));
+        for (JobKey job : jobs) {
+            scheduler.triggerJob(job);
+        }
+        return jobs.size();
+    }
+
+    private SendNotificationRequest reminder(OverdueInvoice invoice, LocalDate today) {
+        long daysOverdue = ChronoUnit.DAYS.between(invoice.getDueDate(), today);
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("invoiceNumber", invoice.getInvoiceNumber());
+        variables.put("clientName", invoice.getClientName());
+        variables.put("totalTtc", invoice.getTotalTtc());
+        variables.put("dueDate", invoice.getDueDate());
+        variables.put("daysOverdue", daysOverdue);
+        SendNotificationRequest request = new SendNotificationRequest();
+        request.setRecipient(invoice.getClientEmail());
+        request.setTemplate("invoice-reminder");
+        request.setSubject("Rappel : facture " + invoice.getInvoiceNumber() + " échue");
+        request.setVariables(variables);
+        request.setDedupeKey("reminder:" + invoice.getId() + ":" + daysOverdue / intervalDays);
+        return request;
+    }
+}
@@ -0,0 +1,164 @@
+package com.plateforme.electronique.notification.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.plateforme.electronique.notification.dto.SendNotificationRequest;
+import com.plateforme.electronique.notification.entity.Notification;
+import com.plateforme.electronique.notification.repository.NotificationRepository;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Runs the dispatcher against a real PostgreSQL and a GreenMail SMTP server. Every test writes to its own
+ * domains, so mails left over by another test are never counted. Skipped on machines without Docker.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class NotificationDispatcherMailTest {
+
+    private static final double PER_DOMAIN_PER_SECOND = 2;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @RegisterExtension
+    static final GreenMailExtension GREEN_MAIL = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", () -> ServerSetupTest.SMTP.getPort());
+        registry.add("eureka.client.enabled", () -> "false");
+        registry.add("notification.dispatch.poll-interval-millis", () -> "100");
+        registry.add("notification.retry.initial-backoff-seconds", () -> "1");
+        registry.add("notification.rate-limit.per-domain-per-second", () -> PER_DOMAIN_PER_SECOND);
+        registry.add("notification.rate-limit.burst", () -> PER_DOMAIN_PER_SECOND);
+    }
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void sendsQueuedNotifications() throws MessagingException {
+        UUID id = notificationService.enqueue(null, request("client@dispatch.test", "Bienvenue"));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> received("dispatch.test").size() == 1);
+        MimeMessage message = received("dispatch.test").get(0);
+        assertThat(message.getSubject()).isEqualTo("Bienvenue");
+        await().atMost(Duration.ofSeconds(5)).until(() -> status(id) == Notification.Status.SENT);
+    }
+
+    @Test
+    void retriesWhileTheServerIsDown() {
+        GREEN_MAIL.stop();
+        UUID id = notificationService.enqueue(null, request("client@retry.test", "Relance"));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> notificationRepository.findById(id)
+                .map(notification -> notification.getAttempts() >= 1).orElse(false));
+        Notification failed = notificationRepository.findById(id).orElseThrow();
+        assertThat(failed.getStatus()).isIn(Notification.Status.PENDING, Notification.Status.SENDING);
+        assertThat(failed.getLastError()).isNotNull();
+
+        GREEN_MAIL.start();
+        await().atMost(Duration.ofSeconds(20)).until(() -> status(id) == Notification.Status.SENT);
+        assertThat(received("retry.test")).hasSize(1);
+    }
+
+    @Test
+    void defersMailsOverTheDomainRate() {
+        int count = 6;
+        long deferredBefore = notificationService.stats().getDeferredSinceStart();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            notificationService.enqueue(null, request("client" + i + "@throttled.test", "Facture " + i));
+        }
+
+        await().atMost(Duration.ofSeconds(20)).until(() -> received("throttled.test").size() == count);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // The burst goes out at once, the rest at the per-domain rate.
+        long minimumMillis = (long) ((count - PER_DOMAIN_PER_SECOND) / PER_DOMAIN_PER_SECOND * 1000);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(minimumMillis - 500);
+        assertThat(notificationService.stats().getDeferredSinceStart()).isGreaterThan(deferredBefore);
+    }
+
+    @Test
+    void throughput() {
+        int count = 500;
+        List<SendNotificationRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(request("client@bulk" + i + ".test", "Facture " + i));
+        }
+        long start = System.nanoTime();
+        assertThat(notificationService.enqueueBatch(requests)).isEqualTo(count);
+
+        await().atMost(Duration.ofSeconds(60)).until(() -> received(".test", "bulk").size() == count);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d notifications delivered in %.2f s: %.0f msgs/s%n", count, seconds, count / seconds);
+    }
+
+    private Notification.Status status(UUID id) {
+        return notificationRepository.findById(id).map(Notification::getStatus).orElse(null);
+    }
+
+    private static SendNotificationRequest request(String recipient, String subject) {
+        SendNotificationRequest request = new SendNotificationRequest();
+        request.setRecipient(recipient);
+        request.setTemplate("generic");
+        request.setSubject(subject);
+        request.setVariables(Map.of("name", "Client", "message", subject));
+        return request;
+    }
+
+    private static List<MimeMessage> received(String domain) {
+        return received(domain, "");
+    }
+
+    /**
+     * Mails received by GreenMail for recipients whose domain ends with the given suffix and starts with the
+     * given prefix.
+     */
+    private static List<MimeMessage> received(String domainSuffix, String domainPrefix) {
+        return Arrays.stream(GREEN_MAIL.getReceivedMessages())
+                .filter(message -> {
+                    try {
+                        Address[] recipients = message.getAllRecipients();
+                        if (recipients == null) {
+                            return false;
+                        }
+                        String address = recipients[0].toString();
+                        String domain = address.substring(address.indexOf('@') + 1);
+                        return domain.endsWith(domainSuffix) && domain.startsWith(domainPrefix);
+                    } catch (MessagingException e) {
+                        return false;
+                    }
+                })
+                .toList();
+    }
+}
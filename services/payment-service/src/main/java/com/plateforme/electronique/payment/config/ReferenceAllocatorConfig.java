@@ -0,0 +1,26 @@
+package com.plateforme.electronique.payment.config;
+
+import com.plateforme.electronique.payment.repository.PaymentRepository;
+import com.plateforme.electronique.payment.repository.ReferenceSequenceRepository;
+import com.plateforme.electronique.payment.service.ReferenceAllocator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+public class ReferenceAllocatorConfig {
+
+    @Bean
+    public ReferenceAllocator paymentReferenceAllocator(ReferenceSequenceRepository sequenceRepository,
+                                                        PaymentRepository paymentRepository,
+                                                        PlatformTransactionManager transactionManager,
+                                                        @Value("${payment.reference.block-size:100}") int blockSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return new ReferenceAllocator("PAY", blockSize, sequenceRepository, transactionTemplate,
+                yearPrefix -> paymentRepository.findHighestReferenceNumber(yearPrefix + "%", yearPrefix.length() + 1));
+    }
+}
@@ -12,6 +12,8 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .csrf(csrf -> csrf.disable())
+                // Freshness is left to the controllers, so that the gateway can cache payment reads.
+                .headers(headers -> headers.cacheControl(cacheControl -> cacheControl.disable()))
                 .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
                 .build();
     }
@@ -0,0 +1,30 @@
+package com.plateforme.electronique.payment.controller;
+
+import com.plateforme.electronique.payment.dto.BatchPaymentRequest;
+import com.plateforme.electronique.payment.dto.BatchPaymentResult;
+import com.plateforme.electronique.payment.service.PaymentService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Endpoints for the other services. They are not routed by the gateway.
+ */
+@RestController
+@RequestMapping("/internal/payments")
+public class InternalPaymentController {
+
+    private final PaymentService paymentService;
+
+    public InternalPaymentController(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    /**
+     * Payments of subscription periods, up to 1000 at once; periods already paid are skipped.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchPaymentResult> createBatch(@Valid @RequestBody BatchPaymentRequest request) {
+        return ResponseEntity.ok(paymentService.createBatch(request.getPayments()));
+    }
+}
@@ -3,6 +3,7 @@ package com.plateforme.electronique.payment.controller;
 import com.plateforme.electronique.payment.dto.PaymentRequest;
 import com.plateforme.electronique.payment.entity.Payment;
 import com.plateforme.electronique.payment.repository.PaymentRepository;
+import com.plateforme.electronique.payment.service.IdempotencyStore;
 import com.plateforme.electronique.payment.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -15,17 +16,34 @@ import java.util.UUID;
 @RequestMapping("/api/payments")
 public class PaymentController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String USER_ID_HEADER = "X-User-Id";
+
     private final PaymentService paymentService;
     private final PaymentRepository paymentRepository;
+    private final IdempotencyStore idempotencyStore;
 
-    public PaymentController(PaymentService paymentService, PaymentRepository paymentRepository) {
+    public PaymentController(PaymentService paymentService, PaymentRepository paymentRepository,
+                             IdempotencyStore idempotencyStore) {
         this.paymentService = paymentService;
         this.paymentRepository = paymentRepository;
+        this.idempotencyStore = idempotencyStore;
     }
 
+    /**
+     * Creates a PENDING payment. Sent again with the same {@code Idempotency-Key}, answers with the payment
+     * created the first time instead of creating another one.
+     */
     @PostMapping
-    public ResponseEntity<Payment> create(@Valid @RequestBody PaymentRequest request) {
-        return ResponseEntity.ok(paymentService.create(request));
+    public ResponseEntity<Payment> create(@Valid @RequestBody PaymentRequest request,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String key,
+                                          @RequestHeader(value = USER_ID_HEADER, required = false) String userId) {
+        if (key == null) {
+            return ResponseEntity.ok(paymentService.create(request));
+        }
+        return respond(idempotencyStore.execute("payments.create", userId, key, request, Payment.class,
+                () -> paymentService.create(request)));
     }
 
     @GetMapping
@@ -44,12 +62,24 @@ public class PaymentController {
     }
 
     @PostMapping("/{id}/confirm")
-    public ResponseEntity<Payment> confirm(@PathVariable UUID id) {
-        return ResponseEntity.ok(paymentService.confirm(id));
+    public ResponseEntity<Payment> confirm(@PathVariable UUID id,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String key,
+                                           @RequestHeader(value = USER_ID_HEADER, required = false) String userId) {
+        if (key == null) {
+            return ResponseEntity.ok(paymentService.confirm(id));
+        }
+        return respond(idempotencyStore.execute("payments.confirm", userId, key, id, Payment.class,
+                () -> paymentService.confirm(id)));
     }
 
     @PostMapping("/{id}/refund")
     public ResponseEntity<Payment> refund(@PathVariable UUID id) {
         return ResponseEntity.ok(paymentService.refund(id));
     }
+
+    private static <T> ResponseEntity<T> respond(IdempotencyStore.Result<T> result) {
+        return ResponseEntity.ok()
+                .header(REPLAYED_HEADER, Boolean.toString(result.replayed()))
+                .body(result.body());
+    }
 }
@@ -0,0 +1,14 @@
+package com.plateforme.electronique.payment.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchPaymentRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid SubscriptionPaymentRequest> payments;
+}
@@ -0,0 +1,7 @@
+package com.plateforme.electronique.payment.dto;
+
+/**
+ * Outcome of a batch of subscription payments: how many were created, and how many periods already had one.
+ */
+public record BatchPaymentResult(int created, int existing) {
+}
@@ -0,0 +1,11 @@
+package com.plateforme.electronique.payment.dto;
+
+import com.plateforme.electronique.payment.entity.IdempotencyRecord;
+
+public interface IdempotencyRecordState {
+    IdempotencyRecord.Status getStatus();
+
+    String getRequestHash();
+
+    String getResponseBody();
+}
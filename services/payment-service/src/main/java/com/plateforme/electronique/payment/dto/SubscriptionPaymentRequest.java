@@ -0,0 +1,27 @@
+package com.plateforme.electronique.payment.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Payment of one subscription period; the subscription id identifies the period, so sending it again
+ * creates nothing.
+ */
+@Data
+public class SubscriptionPaymentRequest {
+    @NotNull
+    private UUID subscriptionId;
+
+    @NotNull
+    private UUID userId;
+
+    @NotNull
+    @DecimalMin(value = "0.01")
+    private BigDecimal amount;
+
+    private String currency = "TND";
+    private String method = "CARD";
+}
@@ -0,0 +1,65 @@
+package com.plateforme.electronique.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outcome of a request sent with an {@code Idempotency-Key}, kept until {@code expiresAt} so that a retry of
+ * the request gets the same response instead of running it again.
+ */
+@Entity
+@Table(name = "idempotency_records", indexes = {
+    @Index(name = "idx_idempotency_expires", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    /**
+     * Operation, user and key, e.g. {@code payments.create:<user id>:<key>}.
+     */
+    @Id
+    @Column(name = "record_key", length = 200)
+    private String recordKey;
+
+    /**
+     * SHA-256 of the request, to refuse a key reused for a different request.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    /**
+     * Until when the request is being processed; past it, a retry may run the request itself.
+     */
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    /**
+     * Identifies the current run of the request. A run that was taken over no longer holds it, so it can
+     * neither record its response nor release the key.
+     */
+    @Column(name = "claim_token")
+    private UUID claimToken;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public enum Status {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
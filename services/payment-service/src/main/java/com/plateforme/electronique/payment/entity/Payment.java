@@ -12,6 +12,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_invoice", columnList = "invoiceId"),
+    @Index(name = "idx_payment_subscription", columnList = "subscriptionId", unique = true),
     @Index(name = "idx_payment_reference", columnList = "reference", unique = true)
 })
 @Data
@@ -27,10 +28,18 @@ public class Payment {
     @Column(nullable = false, length = 30)
     private String reference;
 
-    @Column(name = "invoice_id", nullable = false)
-    @NotNull
+    /**
+     * {@code null} for the payment of a subscription period.
+     */
+    @Column(name = "invoice_id")
     private UUID invoiceId;
 
+    /**
+     * Subscription period paid, {@code null} for the payment of an invoice. One payment per period at most.
+     */
+    @Column(name = "subscription_id")
+    private UUID subscriptionId;
+
     @Column(name = "user_id", nullable = false)
     @NotNull
     private UUID userId;
@@ -0,0 +1,20 @@
+package com.plateforme.electronique.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "reference_sequences")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReferenceSequence {
+
+    @Id
+    @Column(name = "sequence_name", length = 30)
+    private String name;
+
+    @Column(name = "last_value", nullable = false)
+    private long lastValue;
+}
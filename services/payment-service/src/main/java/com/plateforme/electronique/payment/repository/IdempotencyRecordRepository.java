@@ -0,0 +1,78 @@
+package com.plateforme.electronique.payment.repository;
+
+import com.plateforme.electronique.payment.dto.IdempotencyRecordState;
+import com.plateforme.electronique.payment.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Current state of a record, read from the database on every call.
+     */
+    @Query("select r.status as status, r.requestHash as requestHash, r.responseBody as responseBody "
+            + "from IdempotencyRecord r where r.recordKey = :key")
+    Optional<IdempotencyRecordState> findState(@Param("key") String key);
+
+    /**
+     * Records that the request is being processed, unless the key is already recorded. Returns 1 when the
+     * caller now owns the key with {@code claimToken}.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_records (record_key, request_hash, status, locked_until, claim_token, "
+            + "created_at, expires_at) VALUES (:key, :requestHash, 'IN_PROGRESS', :lockedUntil, :claimToken, :now, "
+            + ":expiresAt) ON CONFLICT (record_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("requestHash") String requestHash,
+              @Param("claimToken") UUID claimToken,
+              @Param("lockedUntil") LocalDateTime lockedUntil,
+              @Param("now") LocalDateTime now,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Takes over a request whose processing was abandoned, e.g. by an instance that stopped. The new
+     * {@code claimToken} keeps the previous run from completing if it was only slow.
+     */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.lockedUntil = :lockedUntil, r.claimToken = :claimToken "
+            + "where r.recordKey = :key and r.status = :inProgress and r.requestHash = :requestHash "
+            + "and r.lockedUntil < :now")
+    int takeOver(@Param("key") String key,
+                 @Param("inProgress") IdempotencyRecord.Status inProgress,
+                 @Param("requestHash") String requestHash,
+                 @Param("claimToken") UUID claimToken,
+                 @Param("lockedUntil") LocalDateTime lockedUntil,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Records the response of the run holding {@code claimToken}. Returns 0 when the run was taken over.
+     */
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :completed, r.responseBody = :responseBody, "
+            + "r.lockedUntil = null, r.expiresAt = :expiresAt where r.recordKey = :key "
+            + "and r.claimToken = :claimToken")
+    int complete(@Param("key") String key,
+                 @Param("claimToken") UUID claimToken,
+                 @Param("completed") IdempotencyRecord.Status completed,
+                 @Param("responseBody") String responseBody,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Forgets a request that failed, so that it can be retried with the same key.
+     */
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.recordKey = :key and r.status = :inProgress "
+            + "and r.claimToken = :claimToken")
+    int release(@Param("key") String key, @Param("inProgress") IdempotencyRecord.Status inProgress,
+                @Param("claimToken") UUID claimToken);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_records WHERE record_key IN ("
+            + "SELECT record_key FROM idempotency_records WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -2,9 +2,20 @@ package com.plateforme.electronique.payment.repository;
 
 import com.plateforme.electronique.payment.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     List<Payment> findByInvoiceId(UUID invoiceId);
+
+    @Query("select p.subscriptionId from Payment p where p.subscriptionId in :subscriptionIds")
+    Set<UUID> findPaidSubscriptionIds(@Param("subscriptionIds") Collection<UUID> subscriptionIds);
+
+    @Query(value = "SELECT COALESCE(MAX(CAST(SUBSTRING(reference FROM :offset) AS BIGINT)), 0) "
+            + "FROM payments WHERE reference LIKE :pattern", nativeQuery = true)
+    long findHighestReferenceNumber(@Param("pattern") String pattern, @Param("offset") int offset);
 }
@@ -0,0 +1,20 @@
+package com.plateforme.electronique.payment.repository;
+
+import com.plateforme.electronique.payment.entity.ReferenceSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Optional;
+
+public interface ReferenceSequenceRepository extends JpaRepository<ReferenceSequence, String> {
+
+    @Query(value = "UPDATE reference_sequences SET last_value = last_value + :blockSize "
+            + "WHERE sequence_name = :name RETURNING last_value", nativeQuery = true)
+    Optional<Long> reserve(@Param("name") String name, @Param("blockSize") int blockSize);
+
+    @Modifying
+    @Query(value = "INSERT INTO reference_sequences (sequence_name, last_value) VALUES (:name, :floor) "
+            + "ON CONFLICT (sequence_name) DO NOTHING", nativeQuery = true)
+    int initialize(@Param("name") String name, @Param("floor") long floor);
+}
@@ -0,0 +1,17 @@
+package com.plateforme.electronique.payment.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The request with this idempotency key is still being processed; it can be retried later.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyConflictException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyConflictException(String key) {
+        super("Request with idempotency key " + key + " is still in progress");
+    }
+}
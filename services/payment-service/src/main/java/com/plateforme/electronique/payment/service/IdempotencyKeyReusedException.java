@@ -0,0 +1,17 @@
+package com.plateforme.electronique.payment.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The idempotency key was already used for a different request.
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key " + key + " was used for a different request");
+    }
+}
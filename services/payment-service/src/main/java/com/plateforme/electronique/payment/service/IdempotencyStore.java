@@ -0,0 +1,259 @@
+package com.plateforme.electronique.payment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plateforme.electronique.payment.dto.IdempotencyRecordState;
+import com.plateforme.electronique.payment.entity.IdempotencyRecord;
+import com.plateforme.electronique.payment.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request sent with an {@code Idempotency-Key} at most once and answers its retries with the response
+ * it recorded.
+ *
+ * <p>Responses are kept in {@code idempotency_records} for {@code ttl-hours}, the most recent ones also in an
+ * in-memory LRU so that most retries are answered without a query. A key is claimed in the table before the
+ * request runs, and the request commits in the same transaction as its response: a key is never recorded for
+ * a request that did not happen. A request that fails is forgotten, so that its retry runs it again.
+ *
+ * <p>A retry arriving while the request is still running waits for its response, for at most
+ * {@code wait-millis}: in memory when both are on this instance, by polling the table otherwise. A request
+ * still claimed {@code lock-seconds} after it started is assumed abandoned and may be run by a retry. Each
+ * run holds a claim token; if the first run was only slow, it finds its token replaced when it completes and
+ * rolls back, so the request still commits at most once.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final long POLL_MILLIS = 50;
+
+    /**
+     * Response of a request, with the request hash to recognise retries.
+     */
+    private record Completed(String requestHash, String responseBody) {
+    }
+
+    private record Performed<T>(T body, String responseBody) {
+    }
+
+    /**
+     * Response of a request sent with an idempotency key, {@code replayed} when it was recorded earlier.
+     */
+    public record Result<T>(T body, boolean replayed) {
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, Completed> completed;
+    private final ConcurrentMap<String, CompletableFuture<Completed>> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final Duration lock;
+    private final long waitMillis;
+    private final int cleanupBatchSize;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${payment.idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${payment.idempotency.cache-size:100000}") long cacheSize,
+                            @Value("${payment.idempotency.lock-seconds:30}") long lockSeconds,
+                            @Value("${payment.idempotency.wait-millis:5000}") long waitMillis,
+                            @Value("${payment.idempotency.cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.lock = Duration.ofSeconds(lockSeconds);
+        this.waitMillis = waitMillis;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} unless a request with the same key was already run for this operation and user, in
+     * which case its response is returned.
+     *
+     * @param request what identifies the request besides the key; a key reused with a different request is
+     *                refused with {@link IdempotencyKeyReusedException}
+     * @throws IdempotencyConflictException when the same request is still running after {@code wait-millis}
+     */
+    public <T> Result<T> execute(String operation, String userId, String key, Object request, Class<T> type,
+                                 Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String recordKey = operation + ":" + (userId != null ? userId : "-") + ":" + key;
+        String requestHash = hash(request);
+        Completed hit = completed.getIfPresent(recordKey);
+        if (hit != null) {
+            return replay(hit, key, requestHash, type);
+        }
+
+        CompletableFuture<Completed> own = new CompletableFuture<>();
+        CompletableFuture<Completed> running = inFlight.putIfAbsent(recordKey, own);
+        if (running != null) {
+            Completed shared = await(running, key);
+            return shared != null ? replay(shared, key, requestHash, type)
+                    : execute(operation, userId, key, request, type, action);
+        }
+        try {
+            return claimAndRun(recordKey, key, requestHash, type, action, own);
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(recordKey, own);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.idempotency.cleanup-interval-millis:60000}")
+    public void deleteExpired() {
+        long total = 0;
+        int deleted;
+        do {
+            deleted = transactionTemplate.execute(status ->
+                    repository.deleteExpired(LocalDateTime.now(), cleanupBatchSize));
+            total += deleted;
+        } while (deleted == cleanupBatchSize);
+        if (total > 0) {
+            log.debug("Deleted {} expired idempotency records", total);
+        }
+    }
+
+    private <T> Result<T> claimAndRun(String recordKey, String key, String requestHash, Class<T> type,
+                                      Supplier<T> action, CompletableFuture<Completed> own) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            UUID claimToken = UUID.randomUUID();
+            Boolean claimed = transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                return repository.claim(recordKey, requestHash, claimToken, now.plus(lock), now, now.plus(ttl)) == 1
+                        || repository.takeOver(recordKey, IdempotencyRecord.Status.IN_PROGRESS, requestHash,
+                        claimToken, now.plus(lock), now) == 1;
+            });
+            if (Boolean.TRUE.equals(claimed)) {
+                return run(recordKey, key, claimToken, requestHash, action, own);
+            }
+            Optional<IdempotencyRecordState> state = repository.findState(recordKey);
+            if (state.isPresent() && !state.get().getRequestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            if (state.isPresent() && state.get().getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                Completed recorded = new Completed(requestHash, state.get().getResponseBody());
+                completed.put(recordKey, recorded);
+                own.complete(recorded);
+                return replay(recorded, key, requestHash, type);
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IdempotencyConflictException(key);
+            }
+            sleep(key);
+        }
+    }
+
+    private <T> Result<T> run(String recordKey, String key, UUID claimToken, String requestHash,
+                              Supplier<T> action, CompletableFuture<Completed> own) {
+        Performed<T> performed;
+        try {
+            performed = transactionTemplate.execute(status -> {
+                T value = action.get();
+                String json = toJson(value);
+                if (repository.complete(recordKey, claimToken, IdempotencyRecord.Status.COMPLETED, json,
+                        LocalDateTime.now().plus(ttl)) == 0) {
+                    // Taken over by a retry after lock-seconds: that run owns the request now.
+                    throw new IdempotencyConflictException(key);
+                }
+                return new Performed<>(value, json);
+            });
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.release(recordKey, IdempotencyRecord.Status.IN_PROGRESS, claimToken));
+            throw e;
+        }
+        Completed recorded = new Completed(requestHash, performed.responseBody());
+        completed.put(recordKey, recorded);
+        own.complete(recorded);
+        return new Result<>(performed.body(), false);
+    }
+
+    /**
+     * Waits for the same request running on this instance; {@code null} when it failed.
+     */
+    private Completed await(CompletableFuture<Completed> running, String key) {
+        try {
+            return running.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            return null;
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(key);
+        }
+    }
+
+    private <T> Result<T> replay(Completed recorded, String key, String requestHash, Class<T> type) {
+        if (!recorded.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        try {
+            return new Result<>(objectMapper.readValue(recorded.responseBody(), type), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable recorded response for idempotency key " + key, e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot record response", e);
+        }
+    }
+
+    private static void sleep(String key) {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException(key);
+        }
+    }
+}
@@ -1,25 +1,42 @@
 package com.plateforme.electronique.payment.service;
 
+import com.plateforme.electronique.payment.dto.BatchPaymentResult;
 import com.plateforme.electronique.payment.dto.PaymentRequest;
+import com.plateforme.electronique.payment.dto.SubscriptionPaymentRequest;
 import com.plateforme.electronique.payment.entity.Payment;
 import com.plateforme.electronique.payment.repository.PaymentRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final ReferenceAllocator referenceAllocator;
+    private final JdbcTemplate jdbcTemplate;
 
-    public PaymentService(PaymentRepository paymentRepository) {
+    public PaymentService(PaymentRepository paymentRepository,
+                          ReferenceAllocator referenceAllocator,
+                          JdbcTemplate jdbcTemplate) {
         this.paymentRepository = paymentRepository;
+        this.referenceAllocator = referenceAllocator;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     public Payment create(PaymentRequest request) {
         Payment payment = Payment.builder()
-                .reference(generateReference())
+                .reference(referenceAllocator.next())
                 .invoiceId(request.getInvoiceId())
                 .userId(request.getUserId())
                 .amount(request.getAmount())
@@ -30,9 +47,68 @@ public class PaymentService {
         return paymentRepository.save(payment);
     }
 
+    /**
+     * Creates a PENDING payment for each subscription period that has none yet, with one query for the
+     * periods already paid and one insert of all the others, so a batch sent again creates nothing.
+     */
+    @Transactional
+    public BatchPaymentResult createBatch(List<SubscriptionPaymentRequest> requests) {
+        Map<UUID, SubscriptionPaymentRequest> byPeriod = new LinkedHashMap<>();
+        for (SubscriptionPaymentRequest request : requests) {
+            Payment.Method.valueOf(request.getMethod());
+            byPeriod.putIfAbsent(request.getSubscriptionId(), request);
+        }
+        Set<UUID> paid = paymentRepository.findPaidSubscriptionIds(byPeriod.keySet());
+        List<SubscriptionPaymentRequest> unpaid = byPeriod.values().stream()
+                .filter(request -> !paid.contains(request.getSubscriptionId()))
+                .toList();
+        if (unpaid.isEmpty()) {
+            return new BatchPaymentResult(0, requests.size());
+        }
+        List<String> references = referenceAllocator.next(unpaid.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // One statement for the whole batch; RETURNING tells which rows were inserted, which batched
+        // executions rewritten by the driver (reWriteBatchedInserts) do not.
+        List<UUID> inserted = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO payments (id, reference, "
+                    + "subscription_id, user_id, amount, currency, method, status, created_at) "
+                    + "SELECT id, reference, subscription_id, user_id, amount, currency, method, 'PENDING', ? "
+                    + "FROM unnest(?, ?, ?, ?, ?, ?, ?) "
+                    + "AS batch (id, reference, subscription_id, user_id, amount, currency, method) "
+                    + "ON CONFLICT (subscription_id) DO NOTHING RETURNING id");
+            statement.setTimestamp(1, now);
+            statement.setArray(2, connection.createArrayOf("uuid",
+                    unpaid.stream().map(request -> UUID.randomUUID()).toArray()));
+            statement.setArray(3, connection.createArrayOf("varchar", references.toArray()));
+            statement.setArray(4, connection.createArrayOf("uuid",
+                    unpaid.stream().map(SubscriptionPaymentRequest::getSubscriptionId).toArray()));
+            statement.setArray(5, connection.createArrayOf("uuid",
+                    unpaid.stream().map(SubscriptionPaymentRequest::getUserId).toArray()));
+            statement.setArray(6, connection.createArrayOf("numeric",
+                    unpaid.stream().map(SubscriptionPaymentRequest::getAmount).toArray()));
+            statement.setArray(7, connection.createArrayOf("varchar",
+                    unpaid.stream().map(SubscriptionPaymentRequest::getCurrency).toArray()));
+            statement.setArray(8, connection.createArrayOf("varchar",
+                    unpaid.stream().map(SubscriptionPaymentRequest::getMethod).toArray()));
+            return statement;
+        }, (row, rowNum) -> row.getObject(1, UUID.class));
+        int created = inserted.size();
+        return new BatchPaymentResult(created, requests.size() - created);
+    }
+
+    /**
+     * Marks a PENDING payment COMPLETED; a payment already COMPLETED is returned unchanged.
+     */
+    @Transactional
     public Payment confirm(UUID id) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Payment not found"));
+        if (payment.getStatus() == Payment.Status.COMPLETED) {
+            return payment;
+        }
+        if (payment.getStatus() != Payment.Status.PENDING) {
+            throw new IllegalStateException("Only pending payments can be confirmed");
+        }
         payment.setStatus(Payment.Status.COMPLETED);
         payment.setPaymentDate(LocalDate.now());
         return paymentRepository.save(payment);
@@ -44,10 +120,4 @@ public class PaymentService {
         payment.setStatus(Payment.Status.REFUNDED);
         return paymentRepository.save(payment);
     }
-
-    private String generateReference() {
-        int year = LocalDate.now().getYear();
-        long seq = paymentRepository.count() + 1;
-        return String.format("PAY-%d-%05d", year, seq);
-    }
 }
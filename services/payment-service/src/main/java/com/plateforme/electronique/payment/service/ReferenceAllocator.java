@@ -0,0 +1,92 @@
+package com.plateforme.electronique.payment.service;
+
+import com.plateforme.electronique.payment.repository.ReferenceSequenceRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hands out yearly references such as {@code PAY-2026-00042} from blocks reserved in the
+ * {@code reference_sequences} table. Only one database round trip is needed per block; values of a block
+ * left unused at shutdown are skipped, never reused.
+ */
+public class ReferenceAllocator {
+
+    private final String prefix;
+    private final int blockSize;
+    private final ReferenceSequenceRepository sequenceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ToLongFunction<String> highestIssued;
+
+    private int currentYear;
+    private long nextValue;
+    private long highValue;
+
+    /**
+     * @param highestIssued returns the highest number already issued for a year prefix such as
+     *                      {@code PAY-2026-}; used once per year to seed the sequence
+     */
+    public ReferenceAllocator(String prefix,
+                              int blockSize,
+                              ReferenceSequenceRepository sequenceRepository,
+                              TransactionTemplate transactionTemplate,
+                              ToLongFunction<String> highestIssued) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive");
+        }
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+        this.sequenceRepository = sequenceRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.highestIssued = highestIssued;
+    }
+
+    public synchronized String next() {
+        int year = LocalDate.now().getYear();
+        if (year != currentYear || nextValue > highValue) {
+            reserveBlock(year, blockSize);
+        }
+        return format(year, nextValue++);
+    }
+
+    /**
+     * Hands out {@code count} references at once: what is left of the current block, then a single block
+     * large enough for the rest.
+     */
+    public synchronized List<String> next(int count) {
+        int year = LocalDate.now().getYear();
+        List<String> references = new ArrayList<>(count);
+        if (year == currentYear) {
+            while (references.size() < count && nextValue <= highValue) {
+                references.add(format(year, nextValue++));
+            }
+        }
+        if (references.size() < count) {
+            reserveBlock(year, Math.max(blockSize, count - references.size()));
+            while (references.size() < count) {
+                references.add(format(year, nextValue++));
+            }
+        }
+        return references;
+    }
+
+    private String format(int year, long value) {
+        return String.format("%s-%d-%05d", prefix, year, value);
+    }
+
+    private void reserveBlock(int year, int size) {
+        String name = prefix + "-" + year;
+        Long high = transactionTemplate.execute(status -> sequenceRepository.reserve(name, size)
+                .orElseGet(() -> {
+                    sequenceRepository.initialize(name, highestIssued.applyAsLong(name + "-"));
+                    return sequenceRepository.reserve(name, size)
+                            .orElseThrow(() -> new IllegalStateException("Reference sequence unavailable: " + name));
+                }));
+        currentYear = year;
+        highValue = high;
+        nextValue = high - size + 1;
+    }
+}
@@ -1,3 +1,6 @@
+-- Subscription payments have no invoice; the column was created NOT NULL before they existed.
+ALTER TABLE payments ALTER COLUMN invoice_id DROP NOT NULL;
+
 INSERT INTO payments (
     id,
     reference,
@@ -0,0 +1,110 @@
+package com.plateforme.electronique.payment.service;
+
+import com.plateforme.electronique.payment.repository.ReferenceSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Several service instances share one sequence row: references must stay unique, and the row must only be
+ * touched once per block instead of once per payment.
+ */
+class ReferenceAllocatorTest {
+
+    private static final int BLOCK_SIZE = 100;
+    private static final int INSTANCES = 3;
+    private static final int THREADS_PER_INSTANCE = 8;
+    private static final int REFERENCES_PER_THREAD = 2_000;
+
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final AtomicInteger reservations = new AtomicInteger();
+    private ReferenceSequenceRepository sequenceRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void fakeSequenceTable() {
+        sequenceRepository = mock(ReferenceSequenceRepository.class);
+        when(sequenceRepository.reserve(anyString(), anyInt())).thenAnswer(invocation -> {
+            reservations.incrementAndGet();
+            AtomicLong sequence = sequences.get(invocation.<String>getArgument(0));
+            return sequence == null
+                    ? Optional.empty()
+                    : Optional.of(sequence.addAndGet(invocation.<Integer>getArgument(1)));
+        });
+        when(sequenceRepository.initialize(anyString(), anyLong())).thenAnswer(invocation ->
+                sequences.putIfAbsent(invocation.getArgument(0), new AtomicLong(invocation.getArgument(1))) == null ? 1 : 0);
+        transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void concurrentInstancesNeverHandOutTheSameReference() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(INSTANCES * THREADS_PER_INSTANCE);
+        Set<String> references = ConcurrentHashMap.newKeySet();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < INSTANCES; i++) {
+                ReferenceAllocator allocator = allocator(41);
+                for (int t = 0; t < THREADS_PER_INSTANCE; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int n = 0; n < REFERENCES_PER_THREAD; n++) {
+                            references.add(allocator.next());
+                        }
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        int total = INSTANCES * THREADS_PER_INSTANCE * REFERENCES_PER_THREAD;
+        assertThat(references).hasSize(total);
+        assertThat(references).doesNotContain(String.format("PAY-%d-%05d", LocalDate.now().getYear(), 41));
+        // One round trip per block, plus the miss that seeds the sequence of each instance.
+        assertThat(reservations.get()).isLessThanOrEqualTo(total / BLOCK_SIZE + 2 * INSTANCES);
+    }
+
+    @Test
+    void batchesTakeTheRestOfTheBlockThenOneLargerBlock() {
+        ReferenceAllocator allocator = allocator(0);
+        int year = LocalDate.now().getYear();
+
+        assertThat(allocator.next()).isEqualTo(String.format("PAY-%d-%05d", year, 1));
+        List<String> batch = allocator.next(250);
+
+        assertThat(batch).hasSize(250).doesNotHaveDuplicates();
+        assertThat(batch.get(0)).isEqualTo(String.format("PAY-%d-%05d", year, 2));
+        assertThat(batch.get(249)).isEqualTo(String.format("PAY-%d-%05d", year, 251));
+        // The seeding miss, the first block, then one block for the 151 references left.
+        assertThat(reservations.get()).isEqualTo(3);
+    }
+
+    private ReferenceAllocator allocator(long highestIssued) {
+        return new ReferenceAllocator("PAY", BLOCK_SIZE, sequenceRepository, transactionTemplate,
+                yearPrefix -> highestIssued);
+    }
+}
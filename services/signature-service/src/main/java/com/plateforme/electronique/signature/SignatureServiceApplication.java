@@ -0,0 +1,14 @@
+package com.plateforme.electronique.signature;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class SignatureServiceApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(SignatureServiceApplication.class, args);
+    }
+}
@@ -0,0 +1,48 @@
+package com.plateforme.electronique.signature.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class SignatureConfig {
+
+    /**
+     * Resolves {@code http://invoice-service} through Eureka.
+     */
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder(RestClientBuilderConfigurer configurer,
+                                                            @Value("${signature.invoice-service.connect-timeout-millis:2000}") long connectTimeout,
+                                                            @Value("${signature.invoice-service.read-timeout-millis:30000}") long readTimeout) {
+        ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(Duration.ofMillis(connectTimeout))
+                .withReadTimeout(Duration.ofMillis(readTimeout));
+        return configurer.configure(RestClient.builder())
+                .requestFactory(ClientHttpRequestFactories.get(settings));
+    }
+
+    /**
+     * Signing is CPU bound: one platform thread per core, each keeping its own signer instances.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService signingExecutor(@Value("${signature.batch.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "signer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
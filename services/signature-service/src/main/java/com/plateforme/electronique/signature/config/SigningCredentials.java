@@ -0,0 +1,15 @@
+package com.plateforme.electronique.signature.config;
+
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+/**
+ * Signing key with its certificate chain, the signer certificate first.
+ */
+public record SigningCredentials(PrivateKey privateKey, List<X509Certificate> chain, String signatureAlgorithm) {
+
+    public X509Certificate certificate() {
+        return chain.get(0);
+    }
+}
@@ -0,0 +1,112 @@
+package com.plateforme.electronique.signature.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.KeyUsage;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+@Configuration
+@Slf4j
+public class SigningKeyConfig {
+
+    /**
+     * Loads the signing key once from the configured keystore. Without a keystore, a self-signed key is
+     * generated for development; it changes at every restart and must not be used in production. Batch
+     * seals are kept as evidence and must stay verifiable after a restart, so the service does not start
+     * with sealing enabled and no keystore.
+     */
+    @Bean
+    public SigningCredentials signingCredentials(@Value("${signature.keystore.path:}") String path,
+                                                 @Value("${signature.keystore.type:PKCS12}") String type,
+                                                 @Value("${signature.keystore.password:}") String password,
+                                                 @Value("${signature.keystore.alias:}") String alias,
+                                                 @Value("${signature.seal.enabled:true}") boolean sealEnabled)
+            throws IOException, GeneralSecurityException, OperatorCreationException {
+        if (path.isBlank()) {
+            if (sealEnabled) {
+                throw new IllegalStateException("Batch sealing needs a signing keystore: set "
+                        + "signature.keystore.path (SIGNATURE_KEYSTORE_PATH) or disable signature.seal.enabled");
+            }
+            log.warn("No signing keystore configured, using a generated self-signed development key");
+            return selfSigned();
+        }
+        KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream in = Files.newInputStream(Path.of(path))) {
+            keyStore.load(in, password.toCharArray());
+        }
+        String keyAlias = alias.isBlank() ? firstKeyAlias(keyStore) : alias;
+        Key key = keyStore.getKey(keyAlias, password.toCharArray());
+        if (!(key instanceof PrivateKey privateKey)) {
+            throw new IllegalStateException("No private key under alias " + keyAlias);
+        }
+        List<X509Certificate> chain = Arrays.stream(keyStore.getCertificateChain(keyAlias))
+                .map(X509Certificate.class::cast)
+                .toList();
+        log.info("Signing with {} ({})", chain.get(0).getSubjectX500Principal(), keyAlias);
+        return new SigningCredentials(privateKey, chain, algorithmFor(privateKey));
+    }
+
+    private SigningCredentials selfSigned() throws GeneralSecurityException, OperatorCreationException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        X500Name subject = new X500Name("CN=Plateforme Electronique (dev), O=Plateforme Electronique, C=TN");
+        Instant now = Instant.now();
+        X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(subject,
+                BigInteger.valueOf(now.toEpochMilli()), Date.from(now.minus(Duration.ofDays(1))),
+                Date.from(now.plus(Duration.ofDays(365))), subject, keyPair.getPublic());
+        try {
+            builder.addExtension(Extension.keyUsage, true,
+                    new KeyUsage(KeyUsage.digitalSignature | KeyUsage.nonRepudiation));
+        } catch (IOException e) {
+            throw new GeneralSecurityException("Unable to build development certificate", e);
+        }
+        X509Certificate certificate = new JcaX509CertificateConverter().getCertificate(
+                builder.build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+        return new SigningCredentials(keyPair.getPrivate(), List.of(certificate), algorithmFor(keyPair.getPrivate()));
+    }
+
+    private static String firstKeyAlias(KeyStore keyStore) throws GeneralSecurityException {
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(alias)) {
+                return alias;
+            }
+        }
+        throw new IllegalStateException("Keystore holds no private key");
+    }
+
+    private static String algorithmFor(PrivateKey key) {
+        return switch (key.getAlgorithm()) {
+            case "RSA" -> "SHA256withRSA";
+            case "EC" -> "SHA256withECDSA";
+            default -> throw new IllegalStateException("Unsupported key algorithm " + key.getAlgorithm());
+        };
+    }
+}
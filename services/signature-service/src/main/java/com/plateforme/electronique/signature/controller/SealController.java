@@ -0,0 +1,53 @@
+package com.plateforme.electronique.signature.controller;
+
+import com.plateforme.electronique.signature.dto.InvoiceEventMessage;
+import com.plateforme.electronique.signature.dto.SealStats;
+import com.plateforme.electronique.signature.dto.SealVerification;
+import com.plateforme.electronique.signature.dto.VerifySealRequest;
+import com.plateforme.electronique.signature.service.SealVerifier;
+import com.plateforme.electronique.signature.service.SealingService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/signatures")
+public class SealController {
+
+    private final SealingService sealingService;
+    private final SealVerifier sealVerifier;
+
+    public SealController(SealingService sealingService, SealVerifier sealVerifier) {
+        this.sealingService = sealingService;
+        this.sealVerifier = sealVerifier;
+    }
+
+    /**
+     * Outbox subscriber endpoint of invoice-service; invoice.validated events are queued for sealing.
+     */
+    @PostMapping("/events")
+    public ResponseEntity<Map<String, Integer>> events(@RequestBody List<InvoiceEventMessage> events) {
+        return ResponseEntity.ok(Map.of("accepted", sealingService.accept(events)));
+    }
+
+    @PostMapping("/seals")
+    public ResponseEntity<SealStats> sealNow() throws IOException {
+        sealingService.sealNow();
+        return ResponseEntity.ok(sealingService.stats());
+    }
+
+    @GetMapping("/seals/stats")
+    public ResponseEntity<SealStats> stats() {
+        return ResponseEntity.ok(sealingService.stats());
+    }
+
+    @PostMapping("/seals/verify")
+    public ResponseEntity<SealVerification> verify(@Valid @RequestBody VerifySealRequest request) {
+        return ResponseEntity.ok(sealVerifier.verify(request.getInvoiceId(), request.getContentHash(),
+                request.getProof()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.plateforme.electronique.signature.controller;
+
+import com.plateforme.electronique.signature.dto.BatchSignatureRequest;
+import com.plateforme.electronique.signature.dto.BatchSignatureResult;
+import com.plateforme.electronique.signature.dto.SignatureResult;
+import com.plateforme.electronique.signature.dto.SignatureStats;
+import com.plateforme.electronique.signature.service.SignatureService;
+import com.plateforme.electronique.signature.service.SigningMetrics;
+import jakarta.validation.Valid;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@RestController
+@RequestMapping("/api/signatures")
+public class SignatureController {
+
+    private final SignatureService signatureService;
+    private final SigningMetrics metrics;
+    private final ExecutorService signingExecutor;
+
+    public SignatureController(SignatureService signatureService,
+                               SigningMetrics metrics,
+                               ExecutorService signingExecutor) {
+        this.signatureService = signatureService;
+        this.metrics = metrics;
+        this.signingExecutor = signingExecutor;
+    }
+
+    @PostMapping("/invoices/{invoiceId}")
+    public ResponseEntity<SignatureResult> signInvoice(@PathVariable UUID invoiceId) {
+        return ResponseEntity.ok(signatureService.signInvoice(invoiceId));
+    }
+
+    @PostMapping("/invoices/batch")
+    public ResponseEntity<BatchSignatureResult> signInvoices(@Valid @RequestBody BatchSignatureRequest request) {
+        return ResponseEntity.ok(signatureService.signInvoices(request.getInvoiceIds()));
+    }
+
+    @GetMapping("/invoices/{invoiceId}/pdf")
+    public ResponseEntity<FileSystemResource> signedInvoice(@PathVariable UUID invoiceId) {
+        return signatureService.signedDocument(invoiceId)
+                .map(file -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + invoiceId + "-signed.pdf")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Signs the PDF sent as the request body and streams the signed document back.
+     */
+    @PostMapping(value = "/documents", consumes = MediaType.APPLICATION_PDF_VALUE, produces = MediaType.APPLICATION_PDF_VALUE)
+    public ResponseEntity<StreamingResponseBody> signDocument(InputStream document) throws IOException {
+        Path source = signatureService.spool(document);
+        StreamingResponseBody body = out -> signatureService.signDocument(source, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_PDF).body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<SignatureStats> stats() {
+        int parallelism = signingExecutor instanceof ThreadPoolExecutor pool ? pool.getCorePoolSize() : 0;
+        return ResponseEntity.ok(new SignatureStats(metrics.signed(), metrics.failed(), metrics.signaturesPerSecond(),
+                metrics.latencyPercentileMillis(50), metrics.latencyPercentileMillis(99), parallelism));
+    }
+}
@@ -0,0 +1,17 @@
+package com.plateforme.electronique.signature.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BatchSignatureRequest {
+
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotNull UUID> invoiceIds;
+}
@@ -0,0 +1,18 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSignatureResult {
+
+    private int signed;
+    private int failed;
+    private double durationMillis;
+    private List<SignatureResult> results;
+}
@@ -0,0 +1,25 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Invoice lifecycle event as delivered by the invoice-service outbox.
+ */
+@Data
+public class InvoiceEventMessage {
+    private long id;
+    private String type;
+    private UUID aggregateId;
+    private LocalDateTime occurredAt;
+    private Payload payload;
+
+    @Data
+    public static class Payload {
+        private UUID invoiceId;
+        private String invoiceNumber;
+        private String contentHash;
+    }
+}
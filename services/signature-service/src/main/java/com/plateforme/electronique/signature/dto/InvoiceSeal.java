@@ -0,0 +1,25 @@
+package com.plateforme.electronique.signature.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Seal of one invoice as stored by invoice-service: the leaf hash and the proof as JSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSeal {
+
+    private UUID invoiceId;
+    /**
+     * Spooled batches written before the field was renamed still name it {@code signatureHash}.
+     */
+    @JsonAlias("signatureHash")
+    private String leafHash;
+    private String sealProof;
+}
@@ -0,0 +1,44 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inclusion proof of an invoice in a sealed batch. It carries the signed root and the signing
+ * certificate, so it can be verified without contacting any service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SealProof {
+
+    private int version;
+    private String algorithm;
+    private UUID batchId;
+    private LocalDateTime sealedAt;
+    private int leafIndex;
+    private int treeSize;
+    private String leafHash;
+    private List<Step> path;
+    private String root;
+    /**
+     * Detached CMS signature of the raw root bytes, DER encoded then Base64.
+     */
+    private String rootSignature;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Step {
+        private String hash;
+        /**
+         * Whether the sibling is the left operand of the parent hash.
+         */
+        private boolean left;
+    }
+}
@@ -0,0 +1,21 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SealStats {
+
+    private int pending;
+    private long batchesSealed;
+    private long invoicesSealed;
+    private int unreportedBatches;
+    private int lastBatchSize;
+    private double lastSealMillis;
+    private LocalDateTime lastSealedAt;
+}
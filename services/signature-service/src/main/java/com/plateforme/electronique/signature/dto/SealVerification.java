@@ -0,0 +1,21 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SealVerification {
+
+    private boolean valid;
+    private boolean leafMatches;
+    private boolean rootMatches;
+    private boolean signatureValid;
+    private String signer;
+    /**
+     * SHA-256 of the signing certificate, to be compared with the trusted one.
+     */
+    private String certificateSha256;
+}
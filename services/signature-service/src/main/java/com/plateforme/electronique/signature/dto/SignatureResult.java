@@ -0,0 +1,25 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignatureResult {
+
+    private UUID invoiceId;
+    private boolean signed;
+    private String signatureHash;
+    private LocalDateTime signedAt;
+    private double durationMillis;
+    private String error;
+
+    public static SignatureResult failed(UUID invoiceId, String error) {
+        return new SignatureResult(invoiceId, false, null, null, 0, error);
+    }
+}
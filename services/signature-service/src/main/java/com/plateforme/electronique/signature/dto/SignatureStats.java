@@ -0,0 +1,18 @@
+package com.plateforme.electronique.signature.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignatureStats {
+
+    private long signed;
+    private long failed;
+    private double signaturesPerSecond;
+    private double p50Millis;
+    private double p99Millis;
+    private int parallelism;
+}
@@ -0,0 +1,24 @@
+package com.plateforme.electronique.signature.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class VerifySealRequest {
+
+    @NotNull
+    private UUID invoiceId;
+
+    @NotBlank
+    @Pattern(regexp = "[0-9a-f]{64}")
+    private String contentHash;
+
+    @NotNull
+    @Valid
+    private SealProof proof;
+}
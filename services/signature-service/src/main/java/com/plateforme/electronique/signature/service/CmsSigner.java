@@ -0,0 +1,87 @@
+package com.plateforme.electronique.signature.service;
+
+import com.plateforme.electronique.signature.config.SigningCredentials;
+import org.bouncycastle.asn1.ASN1Encoding;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.CMSTypedData;
+import org.bouncycastle.cms.SignerInfoGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.cert.CertificateEncodingException;
+
+/**
+ * Produces detached CMS signatures, DER encoded, with the signing certificate chain embedded.
+ *
+ * <p>Each thread keeps its own {@link SignerInfoGenerator} (and with it the {@code Signature} and digest
+ * instances), which are reused from one signature to the next.
+ */
+@Component
+public class CmsSigner {
+
+    private final SigningCredentials credentials;
+    private final JcaCertStore certificates;
+    private final ThreadLocal<SignerInfoGenerator> signerInfoGenerators;
+
+    public CmsSigner(SigningCredentials credentials) throws CertificateEncodingException {
+        this.credentials = credentials;
+        this.certificates = new JcaCertStore(credentials.chain());
+        this.signerInfoGenerators = ThreadLocal.withInitial(this::newSignerInfoGenerator);
+    }
+
+    public String signerName() {
+        return credentials.certificate().getSubjectX500Principal().getName();
+    }
+
+    /**
+     * Signs the content as it streams by; it is written to the digest calculators, never buffered.
+     */
+    public byte[] sign(InputStream content) throws IOException {
+        try {
+            CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+            generator.addSignerInfoGenerator(signerInfoGenerators.get());
+            generator.addCertificates(certificates);
+            return generator.generate(new StreamedContent(content), false).getEncoded(ASN1Encoding.DER);
+        } catch (CMSException e) {
+            throw new IOException("Unable to build the CMS signature", e);
+        }
+    }
+
+    private SignerInfoGenerator newSignerInfoGenerator() {
+        try {
+            return new JcaSignerInfoGeneratorBuilder(new JcaDigestCalculatorProviderBuilder().build())
+                    .build(new JcaContentSignerBuilder(credentials.signatureAlgorithm()).build(credentials.privateKey()),
+                            credentials.certificate());
+        } catch (OperatorCreationException | CertificateEncodingException e) {
+            throw new IllegalStateException("Unable to initialise the signer", e);
+        }
+    }
+
+    private record StreamedContent(InputStream in) implements CMSTypedData {
+
+        @Override
+        public ASN1ObjectIdentifier getContentType() {
+            return CMSObjectIdentifiers.data;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            in.transferTo(out);
+        }
+
+        @Override
+        public Object getContent() {
+            return in;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.plateforme.electronique.signature.service;
+
+import com.plateforme.electronique.signature.dto.SealProof;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary SHA-256 Merkle tree over the sealed invoices of a batch.
+ *
+ * <p>Leaves are {@code SHA-256(0x00 || invoiceId || contentHash)} and inner nodes
+ * {@code SHA-256(0x01 || left || right)}; the distinct prefixes keep a leaf from being passed off as a node.
+ * When a level has an odd number of nodes the last one is promoted unchanged to the next level, so an
+ * inclusion proof has at most {@code ceil(log2(n))} steps.
+ */
+public final class MerkleTree {
+
+    private static final byte LEAF_PREFIX = 0;
+    private static final byte NODE_PREFIX = 1;
+
+    private final List<byte[][]> levels = new ArrayList<>();
+
+    public MerkleTree(List<byte[]> leaves) {
+        if (leaves.isEmpty()) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one leaf");
+        }
+        byte[][] level = leaves.toArray(byte[][]::new);
+        levels.add(level);
+        MessageDigest digest = sha256();
+        while (level.length > 1) {
+            byte[][] parent = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < parent.length; i++) {
+                int left = 2 * i;
+                parent[i] = left + 1 < level.length ? node(digest, level[left], level[left + 1]) : level[left];
+            }
+            levels.add(parent);
+            level = parent;
+        }
+    }
+
+    public byte[] root() {
+        return levels.get(levels.size() - 1)[0];
+    }
+
+    public int size() {
+        return levels.get(0).length;
+    }
+
+    /**
+     * Sibling hashes from the leaf up to the root.
+     */
+    public List<SealProof.Step> proof(int index) {
+        List<SealProof.Step> path = new ArrayList<>();
+        for (int depth = 0; depth < levels.size() - 1; depth++) {
+            byte[][] level = levels.get(depth);
+            int sibling = index ^ 1;
+            if (sibling < level.length) {
+                path.add(new SealProof.Step(HexFormat.of().formatHex(level[sibling]), sibling < index));
+            }
+            index >>= 1;
+        }
+        return path;
+    }
+
+    public static byte[] leaf(UUID invoiceId, byte[] contentHash) {
+        MessageDigest digest = sha256();
+        digest.update(LEAF_PREFIX);
+        digest.update(invoiceId.toString().getBytes(StandardCharsets.UTF_8));
+        return digest.digest(contentHash);
+    }
+
+    /**
+     * Folds the proof path over the leaf; the result equals the root when the leaf belongs to the tree.
+     */
+    public static byte[] rootFrom(byte[] leaf, List<SealProof.Step> path) {
+        MessageDigest digest = sha256();
+        byte[] hash = leaf;
+        for (SealProof.Step step : path) {
+            byte[] sibling = HexFormat.of().parseHex(step.getHash());
+            hash = step.isLeft() ? node(digest, sibling, hash) : node(digest, hash, sibling);
+        }
+        return hash;
+    }
+
+    private static byte[] node(MessageDigest digest, byte[] left, byte[] right) {
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        return digest.digest(right);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
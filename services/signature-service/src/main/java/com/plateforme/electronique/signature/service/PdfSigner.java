@@ -0,0 +1,54 @@
+package com.plateforme.electronique.signature.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.ExternalSigningSupport;
+import org.apache.pdfbox.pdmodel.interactive.digitalsignature.PDSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Calendar;
+
+/**
+ * Signs PDFs with a detached CMS (adbe.pkcs7.detached) signature.
+ *
+ * <p>The document is read from a file and the signature appended with an incremental save, so the original
+ * bytes are copied through once and never held in memory; the CMS digest is computed over the signed byte
+ * ranges as they stream by.
+ */
+@Component
+public class PdfSigner {
+
+    private final CmsSigner cmsSigner;
+    private final String reason;
+    private final String location;
+
+    public PdfSigner(CmsSigner cmsSigner,
+                     @Value("${signature.reason:Facture électronique}") String reason,
+                     @Value("${signature.location:Tunis, TN}") String location) {
+        this.cmsSigner = cmsSigner;
+        this.reason = reason;
+        this.location = location;
+    }
+
+    public void sign(Path input, OutputStream output) throws IOException {
+        try (PDDocument document = Loader.loadPDF(input.toFile())) {
+            PDSignature signature = new PDSignature();
+            signature.setFilter(PDSignature.FILTER_ADOBE_PPKLITE);
+            signature.setSubFilter(PDSignature.SUBFILTER_ADBE_PKCS7_DETACHED);
+            signature.setName(cmsSigner.signerName());
+            signature.setReason(reason);
+            signature.setLocation(location);
+            signature.setSignDate(Calendar.getInstance());
+            document.addSignature(signature);
+            ExternalSigningSupport external = document.saveIncrementalForExternalSigning(output);
+            try (InputStream content = external.getContent()) {
+                external.setSignature(cmsSigner.sign(content));
+            }
+        }
+    }
+}
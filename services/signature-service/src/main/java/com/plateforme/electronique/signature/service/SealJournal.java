@@ -0,0 +1,73 @@
+package com.plateforme.electronique.signature.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Append-only file of the leaves waiting for a seal, one {@code invoiceId contentHash receivedAtMillis}
+ * line each. Leaves are forced to disk before the outbox delivery is acknowledged, so a restart does not
+ * lose them; the file is rewritten with the remaining leaves after each seal. Not thread-safe: callers
+ * hold the sealing lock.
+ */
+class SealJournal {
+
+    private final Path file;
+
+    SealJournal(Path file) {
+        this.file = file;
+    }
+
+    List<PendingLeaf> load() throws IOException {
+        List<PendingLeaf> leaves = new ArrayList<>();
+        if (!Files.exists(file)) {
+            return leaves;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ");
+            if (fields.length == 3) {
+                leaves.add(new PendingLeaf(UUID.fromString(fields[0]), fields[1], Long.parseLong(fields[2])));
+            }
+        }
+        return leaves;
+    }
+
+    void append(Collection<PendingLeaf> leaves) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(format(leaves)));
+            channel.force(false);
+        }
+    }
+
+    void rewrite(Collection<PendingLeaf> leaves) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(format(leaves)));
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static byte[] format(Collection<PendingLeaf> leaves) {
+        StringBuilder lines = new StringBuilder(leaves.size() * 120);
+        for (PendingLeaf leaf : leaves) {
+            lines.append(leaf.invoiceId()).append(' ').append(leaf.contentHash()).append(' ')
+                    .append(leaf.receivedAt()).append('\n');
+        }
+        return lines.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    record PendingLeaf(UUID invoiceId, String contentHash, long receivedAt) {
+    }
+}
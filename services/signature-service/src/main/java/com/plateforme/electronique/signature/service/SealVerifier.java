@@ -0,0 +1,62 @@
+package com.plateforme.electronique.signature.service;
+
+import com.plateforme.electronique.signature.dto.SealProof;
+import com.plateforme.electronique.signature.dto.SealVerification;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.SignerInformation;
+import org.bouncycastle.cms.jcajce.JcaSimpleSignerInfoVerifierBuilder;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.util.Selector;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.CertificateException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Checks a seal proof on its own: the leaf is recomputed from the invoice and folded with the path up to the
+ * root in {@code O(log n)} hashes, and the signature of the proof root is verified against the certificate
+ * embedded in the CMS. Whether that certificate is trusted is left to the caller, who compares its fingerprint.
+ */
+@Component
+public class SealVerifier {
+
+    public SealVerification verify(UUID invoiceId, String contentHash, SealProof proof) {
+        byte[] leaf = MerkleTree.leaf(invoiceId, HexFormat.of().parseHex(contentHash));
+        boolean leafMatches = HexFormat.of().formatHex(leaf).equals(proof.getLeafHash());
+        byte[] root = MerkleTree.rootFrom(leaf, proof.getPath());
+        boolean rootMatches = HexFormat.of().formatHex(root).equals(proof.getRoot());
+        SealVerification verification = new SealVerification(false, leafMatches, rootMatches, false, null, null);
+        try {
+            CMSSignedData signedData = new CMSSignedData(new CMSProcessableByteArray(HexFormat.of().parseHex(proof.getRoot())),
+                    Base64.getDecoder().decode(proof.getRootSignature()));
+            SignerInformation signer = signedData.getSignerInfos().getSigners().iterator().next();
+            @SuppressWarnings("unchecked")
+            Collection<X509CertificateHolder> matches = signedData.getCertificates()
+                    .getMatches((Selector<X509CertificateHolder>) signer.getSID());
+            if (matches.isEmpty()) {
+                return verification;
+            }
+            X509CertificateHolder certificate = matches.iterator().next();
+            verification.setSigner(certificate.getSubject().toString());
+            verification.setCertificateSha256(HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(certificate.getEncoded())));
+            verification.setSignatureValid(signer.verify(new JcaSimpleSignerInfoVerifierBuilder().build(certificate)));
+        } catch (CMSException | IOException | IllegalArgumentException | CertificateException
+                 | OperatorCreationException e) {
+            return verification;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        verification.setValid(leafMatches && rootMatches && verification.isSignatureValid());
+        return verification;
+    }
+}
@@ -0,0 +1,254 @@
+package com.plateforme.electronique.signature.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateforme.electronique.signature.dto.InvoiceEventMessage;
+import com.plateforme.electronique.signature.dto.InvoiceSeal;
+import com.plateforme.electronique.signature.dto.SealProof;
+import com.plateforme.electronique.signature.dto.SealStats;
+import com.plateforme.electronique.signature.service.SealJournal.PendingLeaf;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Seals validated invoices in batches instead of signing them one by one.
+ *
+ * <p>The content hashes carried by invoice.validated events are journaled, then sealed once the window is
+ * full ({@code max-batch-size}) or its oldest leaf is {@code max-wait-millis} old: a Merkle tree is built
+ * over the batch and only its root is signed, so the signing cost is per batch while each invoice gets an
+ * {@code O(log n)} inclusion proof. Sealed batches are written to disk before the journal is trimmed and
+ * reported to invoice-service until it accepts them; a crash in between may seal a leaf twice, never lose it.
+ */
+@Service
+@Slf4j
+public class SealingService {
+
+    public static final String INVOICE_VALIDATED = "invoice.validated";
+    private static final Pattern SHA_256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final CmsSigner cmsSigner;
+    private final ObjectMapper objectMapper;
+    private final RestClient invoiceClient;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitMillis;
+    private final int reportChunkSize;
+    private final Path batchDirectory;
+    private final Path reportedDirectory;
+    private final SealJournal journal;
+    private final Map<UUID, PendingLeaf> pending = new LinkedHashMap<>();
+    private final Object sealLock = new Object();
+
+    private long batchesSealed;
+    private long invoicesSealed;
+    private int lastBatchSize;
+    private double lastSealMillis;
+    private LocalDateTime lastSealedAt;
+
+    public SealingService(CmsSigner cmsSigner,
+                          ObjectMapper objectMapper,
+                          RestClient.Builder restClientBuilder,
+                          @Value("${signature.invoice-service.url:http://invoice-service}") String invoiceServiceUrl,
+                          @Value("${signature.seal.enabled:true}") boolean enabled,
+                          @Value("${signature.seal.max-batch-size:4096}") int maxBatchSize,
+                          @Value("${signature.seal.max-wait-millis:60000}") long maxWaitMillis,
+                          @Value("${signature.seal.report-chunk-size:500}") int reportChunkSize,
+                          @Value("${signature.storage.directory:${java.io.tmpdir}/signed-invoices}") Path directory)
+            throws IOException {
+        this.cmsSigner = cmsSigner;
+        this.objectMapper = objectMapper;
+        this.invoiceClient = restClientBuilder.baseUrl(invoiceServiceUrl).build();
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.reportChunkSize = reportChunkSize;
+        Path sealDirectory = Files.createDirectories(directory.resolve("seals"));
+        this.batchDirectory = Files.createDirectories(sealDirectory.resolve("batches"));
+        this.reportedDirectory = Files.createDirectories(sealDirectory.resolve("reported"));
+        this.journal = new SealJournal(sealDirectory.resolve("pending.log"));
+        for (PendingLeaf leaf : journal.load()) {
+            pending.put(leaf.invoiceId(), leaf);
+        }
+        if (!pending.isEmpty()) {
+            log.info("Recovered {} invoices waiting for a seal", pending.size());
+        }
+    }
+
+    /**
+     * Journals the invoice.validated events of an outbox delivery and returns how many were accepted.
+     * Redelivered invoices replace their pending leaf.
+     */
+    public int accept(List<InvoiceEventMessage> events) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        List<PendingLeaf> leaves = events.stream()
+                .filter(event -> INVOICE_VALIDATED.equals(event.getType()) && event.getPayload() != null)
+                .filter(event -> event.getPayload().getContentHash() != null
+                        && SHA_256_HEX.matcher(event.getPayload().getContentHash()).matches())
+                .map(event -> new PendingLeaf(event.getAggregateId(), event.getPayload().getContentHash(), now))
+                .toList();
+        if (leaves.isEmpty()) {
+            return 0;
+        }
+        synchronized (this) {
+            try {
+                journal.append(leaves);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to journal invoices to seal", e);
+            }
+            for (PendingLeaf leaf : leaves) {
+                pending.remove(leaf.invoiceId());
+                pending.put(leaf.invoiceId(), leaf);
+            }
+        }
+        return leaves.size();
+    }
+
+    @Scheduled(fixedDelayString = "${signature.seal.poll-interval-millis:1000}")
+    public void sealDueBatches() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (sealLock) {
+            try {
+                List<PendingLeaf> batch;
+                while (!(batch = takeDueBatch(false)).isEmpty()) {
+                    seal(batch);
+                }
+            } catch (RuntimeException | IOException e) {
+                log.warn("Unable to seal invoices", e);
+            }
+            reportSealedBatches();
+        }
+    }
+
+    /**
+     * Seals everything pending now, regardless of the window.
+     */
+    public void sealNow() throws IOException {
+        synchronized (sealLock) {
+            List<PendingLeaf> batch;
+            while (!(batch = takeDueBatch(true)).isEmpty()) {
+                seal(batch);
+            }
+            reportSealedBatches();
+        }
+    }
+
+    public synchronized SealStats stats() {
+        return new SealStats(pending.size(), batchesSealed, invoicesSealed, countFiles(batchDirectory),
+                lastBatchSize, lastSealMillis, lastSealedAt);
+    }
+
+    private synchronized List<PendingLeaf> takeDueBatch(boolean force) {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        PendingLeaf oldest = pending.values().iterator().next();
+        boolean due = force || pending.size() >= maxBatchSize
+                || System.currentTimeMillis() - oldest.receivedAt() >= maxWaitMillis;
+        if (!due) {
+            return List.of();
+        }
+        List<PendingLeaf> batch = new ArrayList<>(Math.min(pending.size(), maxBatchSize));
+        Iterator<PendingLeaf> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatchSize) {
+            batch.add(iterator.next());
+        }
+        return batch;
+    }
+
+    private void seal(List<PendingLeaf> batch) throws IOException {
+        long start = System.nanoTime();
+        List<byte[]> leaves = new ArrayList<>(batch.size());
+        for (PendingLeaf leaf : batch) {
+            leaves.add(MerkleTree.leaf(leaf.invoiceId(), HexFormat.of().parseHex(leaf.contentHash())));
+        }
+        MerkleTree tree = new MerkleTree(leaves);
+        String rootSignature = Base64.getEncoder().encodeToString(
+                cmsSigner.sign(new ByteArrayInputStream(tree.root())));
+        UUID batchId = UUID.randomUUID();
+        LocalDateTime sealedAt = LocalDateTime.now();
+        String root = HexFormat.of().formatHex(tree.root());
+        List<InvoiceSeal> seals = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            String leafHash = HexFormat.of().formatHex(leaves.get(i));
+            SealProof proof = new SealProof(1, "SHA-256", batchId, sealedAt, i, tree.size(), leafHash,
+                    tree.proof(i), root, rootSignature);
+            seals.add(new InvoiceSeal(batch.get(i).invoiceId(), leafHash, objectMapper.writeValueAsString(proof)));
+        }
+        Path temp = batchDirectory.resolve(batchId + ".tmp");
+        objectMapper.writeValue(temp.toFile(), seals);
+        Files.move(temp, batchDirectory.resolve(batchId + ".json"), StandardCopyOption.ATOMIC_MOVE);
+
+        synchronized (this) {
+            for (PendingLeaf leaf : batch) {
+                pending.remove(leaf.invoiceId(), leaf);
+            }
+            journal.rewrite(pending.values());
+            batchesSealed++;
+            invoicesSealed += batch.size();
+            lastBatchSize = batch.size();
+            lastSealMillis = (System.nanoTime() - start) / 1_000_000.0;
+            lastSealedAt = sealedAt;
+        }
+        log.info("Sealed {} invoices in batch {} (root {}) in {} ms", batch.size(), batchId, root,
+                String.format("%.1f", lastSealMillis));
+    }
+
+    private void reportSealedBatches() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(batchDirectory, "*.json")) {
+            for (Path file : files) {
+                List<InvoiceSeal> seals = objectMapper.readValue(file.toFile(), new TypeReference<>() {
+                });
+                for (int from = 0; from < seals.size(); from += reportChunkSize) {
+                    invoiceClient.put()
+                            .uri("/internal/invoices/seals")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(Map.of("seals", seals.subList(from, Math.min(seals.size(), from + reportChunkSize))))
+                            .retrieve()
+                            .toBodilessEntity();
+                }
+                Files.move(file, reportedDirectory.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to report sealed batches, retrying later", e);
+        }
+    }
+
+    private static int countFiles(Path directory) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.json")) {
+            int count = 0;
+            for (Path ignored : files) {
+                count++;
+            }
+            return count;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.plateforme.electronique.signature.service;
+
+import com.plateforme.electronique.signature.dto.BatchSignatureResult;
+import com.plateforme.electronique.signature.dto.SignatureResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Signs invoice PDFs fetched from invoice-service, keeps the signed documents on disk and reports the
+ * SHA-256 of each signed document back as the invoice signature hash.
+ *
+ * <p>All signing runs on the signing executor, so the per-thread signer instances are bounded by its size.
+ */
+@Service
+@Slf4j
+public class SignatureService {
+
+    private final PdfSigner pdfSigner;
+    private final SigningMetrics metrics;
+    private final ExecutorService signingExecutor;
+    private final RestClient invoiceClient;
+    private final Path directory;
+
+    public SignatureService(PdfSigner pdfSigner,
+                            SigningMetrics metrics,
+                            ExecutorService signingExecutor,
+                            RestClient.Builder restClientBuilder,
+                            @Value("${signature.invoice-service.url:http://invoice-service}") String invoiceServiceUrl,
+                            @Value("${signature.storage.directory:${java.io.tmpdir}/signed-invoices}") Path directory)
+            throws IOException {
+        this.pdfSigner = pdfSigner;
+        this.metrics = metrics;
+        this.signingExecutor = signingExecutor;
+        this.invoiceClient = restClientBuilder.baseUrl(invoiceServiceUrl).build();
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public SignatureResult signInvoice(UUID invoiceId) {
+        try {
+            return CompletableFuture.supplyAsync(() -> sign(invoiceId), signingExecutor).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Signs the invoices in parallel, one task per invoice. A failure is reported in the result of its
+     * invoice and does not stop the others.
+     */
+    public BatchSignatureResult signInvoices(List<UUID> invoiceIds) {
+        long start = System.nanoTime();
+        List<CompletableFuture<SignatureResult>> tasks = invoiceIds.stream().distinct()
+                .map(id -> CompletableFuture.supplyAsync(() -> sign(id), signingExecutor)
+                        .exceptionally(e -> SignatureResult.failed(id, message(e))))
+                .toList();
+        List<SignatureResult> results = tasks.stream().map(CompletableFuture::join).toList();
+        int signed = (int) results.stream().filter(SignatureResult::isSigned).count();
+        return new BatchSignatureResult(signed, results.size() - signed,
+                (System.nanoTime() - start) / 1_000_000.0, results);
+    }
+
+    /**
+     * Spools an uploaded PDF to a temporary file, so the signer reads it from disk instead of from a
+     * memory copy.
+     */
+    public Path spool(InputStream document) throws IOException {
+        Path source = Files.createTempFile(directory, "upload-", ".pdf");
+        Files.copy(document, source, StandardCopyOption.REPLACE_EXISTING);
+        return source;
+    }
+
+    /**
+     * Signs a spooled upload into the given stream without storing it, then deletes the spooled file.
+     */
+    public void signDocument(Path source, OutputStream signed) throws IOException {
+        try {
+            CompletableFuture.runAsync(() -> {
+                long start = System.nanoTime();
+                signTo(source, signed);
+                metrics.recordSigned(System.nanoTime() - start);
+            }, signingExecutor).join();
+        } catch (CompletionException e) {
+            metrics.recordFailed();
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    public Optional<Path> signedDocument(UUID invoiceId) {
+        Path file = signedFile(invoiceId);
+        return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    private SignatureResult sign(UUID invoiceId) {
+        long start = System.nanoTime();
+        Path source = null;
+        Path target = null;
+        try {
+            source = Files.createTempFile(directory, invoiceId + "-", ".src");
+            download(invoiceId, source);
+            target = Files.createTempFile(directory, invoiceId + "-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(target)), digest)) {
+                signTo(source, out);
+            }
+            Files.move(target, signedFile(invoiceId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            invoiceClient.put()
+                    .uri("/internal/invoices/{id}/signature", invoiceId)
+                    .body(Map.of("signatureHash", hash))
+                    .retrieve()
+                    .toBodilessEntity();
+            long elapsed = System.nanoTime() - start;
+            metrics.recordSigned(elapsed);
+            return new SignatureResult(invoiceId, true, hash, LocalDateTime.now(), elapsed / 1_000_000.0, null);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            metrics.recordFailed();
+            throw new IllegalStateException("Unable to sign invoice " + invoiceId, e);
+        } catch (RuntimeException e) {
+            metrics.recordFailed();
+            throw e;
+        } finally {
+            deleteQuietly(source);
+            deleteQuietly(target);
+        }
+    }
+
+    private void download(UUID invoiceId, Path target) {
+        invoiceClient.get()
+                .uri("/internal/invoices/{id}/pdf", invoiceId)
+                .exchange((request, response) -> {
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        throw new IllegalStateException("invoice-service returned " + response.getStatusCode().value()
+                                + " for invoice " + invoiceId);
+                    }
+                    try (InputStream body = response.getBody()) {
+                        Files.copy(body, target, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    return null;
+                });
+    }
+
+    private void signTo(Path source, OutputStream out) {
+        try {
+            pdfSigner.sign(source, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path signedFile(UUID invoiceId) {
+        return directory.resolve(invoiceId + ".pdf");
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Unable to delete {}", file, e);
+        }
+    }
+
+    private static String message(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
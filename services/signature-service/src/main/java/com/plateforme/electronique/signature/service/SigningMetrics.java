@@ -0,0 +1,76 @@
+package com.plateforme.electronique.signature.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput over the last minute and latency percentiles over the most recent signatures of this instance.
+ */
+@Component
+public class SigningMetrics {
+
+    private static final int WINDOW_SECONDS = 60;
+    private static final int LATENCY_SAMPLES = 4096;
+
+    private final LongAdder signed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final long[] signedPerSecond = new long[WINDOW_SECONDS];
+    private final long[] slotSecond = new long[WINDOW_SECONDS];
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private long recorded;
+
+    public void recordSigned(long latencyNanos) {
+        signed.increment();
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        synchronized (this) {
+            if (slotSecond[slot] != second) {
+                slotSecond[slot] = second;
+                signedPerSecond[slot] = 0;
+            }
+            signedPerSecond[slot]++;
+            latencies[(int) (recorded++ % LATENCY_SAMPLES)] = latencyNanos;
+        }
+    }
+
+    public void recordFailed() {
+        failed.increment();
+    }
+
+    public long signed() {
+        return signed.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    public synchronized double signaturesPerSecond() {
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            if (now - slotSecond[i] < WINDOW_SECONDS) {
+                total += signedPerSecond[i];
+            }
+        }
+        return total / (double) WINDOW_SECONDS;
+    }
+
+    /**
+     * Returns the latency percentile in milliseconds, or 0 when nothing was signed yet.
+     */
+    public double latencyPercentileMillis(double percentile) {
+        long[] samples;
+        synchronized (this) {
+            samples = Arrays.copyOf(latencies, (int) Math.min(recorded, LATENCY_SAMPLES));
+        }
+        if (samples.length == 0) {
+            return 0;
+        }
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile / 100 * samples.length) - 1;
+        return samples[Math.max(0, index)] / 1_000_000.0;
+    }
+}
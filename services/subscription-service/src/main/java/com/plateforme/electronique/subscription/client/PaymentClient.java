@@ -0,0 +1,19 @@
+package com.plateforme.electronique.subscription.client;
+
+import com.plateforme.electronique.subscription.dto.BatchPaymentRequest;
+import com.plateforme.electronique.subscription.dto.BatchPaymentResult;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+@FeignClient(name = "payment-service", path = "/internal/payments")
+public interface PaymentClient {
+
+    int MAX_BATCH_SIZE = 1000;
+
+    /**
+     * At most {@link #MAX_BATCH_SIZE} payments; periods that already have one are skipped.
+     */
+    @PostMapping("/batch")
+    BatchPaymentResult createBatch(@RequestBody BatchPaymentRequest request);
+}
@@ -0,0 +1,67 @@
+package com.plateforme.electronique.subscription.controller;
+
+import com.plateforme.electronique.subscription.dto.Entitlements;
+import com.plateforme.electronique.subscription.dto.PlanInfo;
+import com.plateforme.electronique.subscription.dto.RenewalRunResult;
+import com.plateforme.electronique.subscription.service.PlanCatalog;
+import com.plateforme.electronique.subscription.service.RenewalEngine;
+import com.plateforme.electronique.subscription.service.SubscriptionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Operations for the other services and for operators; not routed by the gateway.
+ */
+@RestController
+@RequestMapping("/internal/subscriptions")
+public class InternalSubscriptionController {
+
+    private final PlanCatalog planCatalog;
+    private final SubscriptionService subscriptionService;
+    private final RenewalEngine renewalEngine;
+
+    public InternalSubscriptionController(PlanCatalog planCatalog,
+                                          SubscriptionService subscriptionService,
+                                          RenewalEngine renewalEngine) {
+        this.planCatalog = planCatalog;
+        this.subscriptionService = subscriptionService;
+        this.renewalEngine = renewalEngine;
+    }
+
+    /**
+     * Reloads the plan catalog right away, after the plans table was changed.
+     */
+    @PostMapping("/plans/refresh")
+    public ResponseEntity<List<PlanInfo>> refreshPlans() {
+        planCatalog.refresh();
+        return ResponseEntity.ok(planCatalog.plans());
+    }
+
+    /**
+     * Plan limits of the user, for the gateway and invoice-service.
+     */
+    @GetMapping("/users/{userId}/entitlements")
+    public ResponseEntity<Entitlements> entitlements(@PathVariable UUID userId) {
+        return ResponseEntity.ok(subscriptionService.entitlements(userId));
+    }
+
+    @DeleteMapping("/users/{userId}/cache")
+    public ResponseEntity<Void> evictUser(@PathVariable UUID userId) {
+        subscriptionService.evict(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Runs the renewals due on {@code date} (today by default) now instead of waiting for the schedule.
+     */
+    @PostMapping("/renewals/run")
+    public ResponseEntity<RenewalRunResult> runRenewals(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(renewalEngine.run(date != null ? date : LocalDate.now()));
+    }
+}
@@ -0,0 +1,50 @@
+package com.plateforme.electronique.subscription.controller;
+
+import com.plateforme.electronique.subscription.dto.PlanInfo;
+import com.plateforme.electronique.subscription.dto.SubscribeRequest;
+import com.plateforme.electronique.subscription.dto.SubscriptionResponse;
+import com.plateforme.electronique.subscription.service.PlanCatalog;
+import com.plateforme.electronique.subscription.service.SubscriptionService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/subscriptions")
+public class SubscriptionController {
+
+    static final String USER_ID_HEADER = "X-User-Id";
+
+    private final SubscriptionService subscriptionService;
+    private final PlanCatalog planCatalog;
+
+    public SubscriptionController(SubscriptionService subscriptionService, PlanCatalog planCatalog) {
+        this.subscriptionService = subscriptionService;
+        this.planCatalog = planCatalog;
+    }
+
+    @GetMapping("/plans")
+    public ResponseEntity<List<PlanInfo>> plans() {
+        return ResponseEntity.ok(planCatalog.plans());
+    }
+
+    @GetMapping("/me")
+    public ResponseEntity<SubscriptionResponse> mine(@RequestHeader(USER_ID_HEADER) UUID userId) {
+        return ResponseEntity.of(subscriptionService.current(userId));
+    }
+
+    @PostMapping
+    public ResponseEntity<SubscriptionResponse> subscribe(@RequestHeader(USER_ID_HEADER) UUID userId,
+                                                          @Valid @RequestBody SubscribeRequest request) {
+        return ResponseEntity.ok(subscriptionService.subscribe(userId, request));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<SubscriptionResponse> cancel(@PathVariable UUID id,
+                                                       @RequestHeader(USER_ID_HEADER) UUID userId) {
+        return ResponseEntity.ok(subscriptionService.cancel(id, userId));
+    }
+}
@@ -0,0 +1,6 @@
+package com.plateforme.electronique.subscription.dto;
+
+import java.util.List;
+
+public record BatchPaymentRequest(List<SubscriptionPaymentRequest> payments) {
+}
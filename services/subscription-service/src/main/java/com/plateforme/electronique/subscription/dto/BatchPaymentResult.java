@@ -0,0 +1,4 @@
+package com.plateforme.electronique.subscription.dto;
+
+public record BatchPaymentResult(int created, int existing) {
+}
@@ -0,0 +1,16 @@
+package com.plateforme.electronique.subscription.dto;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface DueSubscription {
+    UUID getId();
+
+    UUID getUserId();
+
+    UUID getPlanId();
+
+    LocalDate getStartDate();
+
+    LocalDate getEndDate();
+}
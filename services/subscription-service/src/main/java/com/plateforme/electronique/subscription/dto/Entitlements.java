@@ -0,0 +1,23 @@
+package com.plateforme.electronique.subscription.dto;
+
+import com.plateforme.electronique.subscription.entity.Plan;
+
+/**
+ * What the current plan of a user allows. {@code null} limits are unlimited.
+ */
+public record Entitlements(Plan.Name plan,
+                           Integer maxInvoicesPerMonth,
+                           Integer maxUsers,
+                           boolean signatureIncluded,
+                           boolean apiAccess) {
+
+    /**
+     * Applied when no FREE plan is configured.
+     */
+    public static final Entitlements NONE = new Entitlements(Plan.Name.FREE, 0, 1, false, false);
+
+    public static Entitlements of(PlanInfo plan) {
+        return new Entitlements(plan.name(), plan.maxInvoicesPerMonth(), plan.maxUsers(),
+                plan.signatureIncluded(), plan.apiAccess());
+    }
+}
@@ -0,0 +1,26 @@
+package com.plateforme.electronique.subscription.dto;
+
+import com.plateforme.electronique.subscription.entity.Plan;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Immutable copy of a plan, as held by the plan catalog.
+ */
+public record PlanInfo(UUID id,
+                       Plan.Name name,
+                       String description,
+                       BigDecimal priceMonthly,
+                       BigDecimal priceAnnual,
+                       Integer maxInvoicesPerMonth,
+                       Integer maxUsers,
+                       boolean signatureIncluded,
+                       boolean apiAccess) {
+
+    public static PlanInfo of(Plan plan) {
+        return new PlanInfo(plan.getId(), plan.getName(), plan.getDescription(), plan.getPriceMonthly(),
+                plan.getPriceAnnual(), plan.getMaxInvoicesPerMonth(), plan.getMaxUsers(),
+                plan.isSignatureIncluded(), plan.isApiAccess());
+    }
+}
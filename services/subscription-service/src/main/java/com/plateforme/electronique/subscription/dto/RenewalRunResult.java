@@ -0,0 +1,16 @@
+package com.plateforme.electronique.subscription.dto;
+
+import java.time.LocalDate;
+
+/**
+ * What one instance did in a renewal run: partitions it processed, found done or leased by another instance,
+ * or failed to finish, and the subscriptions it renewed and expired.
+ */
+public record RenewalRunResult(LocalDate runDate,
+                               int processed,
+                               int skipped,
+                               int failed,
+                               long renewed,
+                               long expired,
+                               long elapsedMillis) {
+}
@@ -0,0 +1,19 @@
+package com.plateforme.electronique.subscription.dto;
+
+import com.plateforme.electronique.subscription.entity.Plan;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class SubscribeRequest {
+
+    @NotNull
+    private Plan.Name plan;
+
+    /**
+     * Billed yearly instead of monthly.
+     */
+    private boolean annual;
+
+    private boolean autoRenew = true;
+}
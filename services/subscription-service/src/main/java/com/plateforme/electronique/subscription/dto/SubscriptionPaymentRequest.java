@@ -0,0 +1,10 @@
+package com.plateforme.electronique.subscription.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Payment of one subscription period, as accepted by payment-service.
+ */
+public record SubscriptionPaymentRequest(UUID subscriptionId, UUID userId, BigDecimal amount) {
+}
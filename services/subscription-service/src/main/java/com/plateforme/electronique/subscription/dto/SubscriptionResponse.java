@@ -0,0 +1,24 @@
+package com.plateforme.electronique.subscription.dto;
+
+import com.plateforme.electronique.subscription.entity.Plan;
+import com.plateforme.electronique.subscription.entity.Subscription;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubscriptionResponse {
+
+    private UUID id;
+    private UUID userId;
+    private Plan.Name plan;
+    private Subscription.Status status;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private boolean autoRenew;
+}
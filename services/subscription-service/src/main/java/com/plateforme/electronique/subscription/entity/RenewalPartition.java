@@ -0,0 +1,52 @@
+package com.plateforme.electronique.subscription.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Lease and progress of the renewal run of one partition of the subscriptions. The instance holding the lease
+ * moves the position forward with each page it commits, so that another instance taking over an expired
+ * lease resumes where it stopped.
+ */
+@Entity
+@Table(name = "renewal_partitions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RenewalPartition {
+
+    @Id
+    @Column(name = "partition_key", length = 20)
+    private String partitionKey;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "last_end_date")
+    private LocalDate lastEndDate;
+
+    @Column(name = "last_subscription_id")
+    private UUID lastSubscriptionId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = false)
+    private long renewed;
+
+    @Column(nullable = false)
+    private long expired;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -7,7 +7,8 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "subscriptions", indexes = {
-    @Index(name = "idx_subscription_user", columnList = "userId")
+    @Index(name = "idx_subscription_user", columnList = "userId"),
+    @Index(name = "idx_subscription_status_end", columnList = "status, endDate, id")
 })
 @Data
 @NoArgsConstructor
@@ -0,0 +1,60 @@
+package com.plateforme.electronique.subscription.repository;
+
+import com.plateforme.electronique.subscription.entity.RenewalPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RenewalPartitionRepository extends JpaRepository<RenewalPartition, String> {
+
+    /**
+     * Takes the lease of a partition when it is free, expired or already ours, and returns the partition. Its
+     * progress is kept when it belongs to the same run date and started over otherwise. Returns nothing when
+     * another instance holds the lease.
+     */
+    @Query(value = "INSERT INTO renewal_partitions AS p (partition_key, run_date, completed, renewed, expired, "
+            + "lease_owner, lease_until, updated_at) "
+            + "VALUES (:key, :runDate, false, 0, 0, :owner, :leaseUntil, :now) "
+            + "ON CONFLICT (partition_key) DO UPDATE SET lease_owner = :owner, lease_until = :leaseUntil, "
+            + "updated_at = :now, run_date = :runDate, "
+            + "last_end_date = CASE WHEN p.run_date = :runDate THEN p.last_end_date END, "
+            + "last_subscription_id = CASE WHEN p.run_date = :runDate THEN p.last_subscription_id END, "
+            + "completed = p.run_date = :runDate AND p.completed, "
+            + "renewed = CASE WHEN p.run_date = :runDate THEN p.renewed ELSE 0 END, "
+            + "expired = CASE WHEN p.run_date = :runDate THEN p.expired ELSE 0 END "
+            + "WHERE p.lease_until IS NULL OR p.lease_until < :now OR p.lease_owner = :owner "
+            + "RETURNING *", nativeQuery = true)
+    Optional<RenewalPartition> claim(@Param("key") String key,
+                                     @Param("runDate") LocalDate runDate,
+                                     @Param("owner") String owner,
+                                     @Param("leaseUntil") LocalDateTime leaseUntil,
+                                     @Param("now") LocalDateTime now);
+
+    /**
+     * Records the progress of a partition and extends the lease, provided it is still held by {@code owner}.
+     */
+    @Modifying
+    @Query("update RenewalPartition p set p.lastEndDate = :lastEndDate, p.lastSubscriptionId = :lastSubscriptionId, "
+            + "p.completed = :completed, p.renewed = :renewed, p.expired = :expired, p.leaseUntil = :leaseUntil, "
+            + "p.updatedAt = :now where p.partitionKey = :key and p.leaseOwner = :owner")
+    int checkpoint(@Param("key") String key,
+                   @Param("owner") String owner,
+                   @Param("lastEndDate") LocalDate lastEndDate,
+                   @Param("lastSubscriptionId") UUID lastSubscriptionId,
+                   @Param("completed") boolean completed,
+                   @Param("renewed") long renewed,
+                   @Param("expired") long expired,
+                   @Param("leaseUntil") LocalDateTime leaseUntil,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update RenewalPartition p set p.leaseOwner = null, p.leaseUntil = null "
+            + "where p.partitionKey = :key and p.leaseOwner = :owner")
+    int release(@Param("key") String key, @Param("owner") String owner);
+}
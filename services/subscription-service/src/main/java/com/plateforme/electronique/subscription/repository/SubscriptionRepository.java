@@ -1,10 +1,62 @@
 package com.plateforme.electronique.subscription.repository;
 
+import com.plateforme.electronique.subscription.dto.DueSubscription;
 import com.plateforme.electronique.subscription.entity.Subscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, UUID> {
-    Optional<Subscription> findByUserId(UUID userId);
+
+    /**
+     * The subscription of the user in the given status that runs the longest; one without an end date first.
+     */
+    Optional<Subscription> findFirstByUserIdAndStatusOrderByEndDateDesc(UUID userId, Subscription.Status status);
+
+    /**
+     * Number of values of the stored {@code renewal_bucket} column (see schema.sql).
+     */
+    int RENEWAL_BUCKETS = 64;
+
+    /**
+     * Keyset page of the active, auto-renewing subscriptions of a renewal bucket ending on or before
+     * {@code dueOn}, following (afterEndDate, afterId). One index-only range scan of the covering
+     * (status, auto_renew, renewal_bucket, end_date, id) index.
+     */
+    @Query(value = "SELECT id, user_id AS userId, plan_id AS planId, start_date AS startDate, end_date AS endDate "
+            + "FROM subscriptions WHERE status = 'ACTIVE' AND auto_renew AND renewal_bucket = :bucket "
+            + "AND end_date <= :dueOn AND (end_date, id) > (:afterEndDate, :afterId) "
+            + "ORDER BY end_date, id LIMIT :limit", nativeQuery = true)
+    List<DueSubscription> findDueForRenewal(@Param("bucket") int bucket,
+                                            @Param("dueOn") LocalDate dueOn,
+                                            @Param("afterEndDate") LocalDate afterEndDate,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("limit") int limit);
+
+    /**
+     * Marks renewed subscriptions EXPIRED, their next period taking over, and returns those that were still
+     * active and renewing; the others were changed by their user in the meantime.
+     */
+    @Query(value = "UPDATE subscriptions SET status = 'EXPIRED' "
+            + "WHERE id IN (:ids) AND status = 'ACTIVE' AND auto_renew RETURNING id", nativeQuery = true)
+    List<UUID> endRenewed(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Expires up to {@code limit} active subscriptions of a renewal bucket that ended before
+     * {@code endedBefore} without renewing, found through the renewal index. Rows locked by a concurrent
+     * change are left for the next call.
+     */
+    @Modifying
+    @Query(value = "UPDATE subscriptions SET status = 'EXPIRED' WHERE id IN ("
+            + "SELECT id FROM subscriptions WHERE status = 'ACTIVE' AND NOT auto_renew AND renewal_bucket = :bucket "
+            + "AND end_date < :endedBefore LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int expireEnded(@Param("bucket") int bucket,
+                    @Param("endedBefore") LocalDate endedBefore,
+                    @Param("limit") int limit);
 }
@@ -0,0 +1,95 @@
+package com.plateforme.electronique.subscription.service;
+
+import com.plateforme.electronique.subscription.dto.Entitlements;
+import com.plateforme.electronique.subscription.dto.PlanInfo;
+import com.plateforme.electronique.subscription.entity.Plan;
+import com.plateforme.electronique.subscription.repository.PlanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The plans, read once into an immutable snapshot that every lookup uses without touching the database.
+ * The table is read again every {@code subscription.plans.refresh-millis} and on
+ * {@code POST /internal/subscriptions/plans/refresh}; the snapshot is replaced only when a plan changed.
+ */
+@Component
+@DependsOnDatabaseInitialization
+@Slf4j
+public class PlanCatalog {
+
+    private record Snapshot(List<PlanInfo> plans, Map<UUID, PlanInfo> byId, Map<Plan.Name, PlanInfo> byName,
+                            Map<Plan.Name, Entitlements> entitlements) {
+
+        static Snapshot of(List<PlanInfo> plans) {
+            Map<UUID, PlanInfo> byId = new HashMap<>();
+            Map<Plan.Name, PlanInfo> byName = new EnumMap<>(Plan.Name.class);
+            Map<Plan.Name, Entitlements> entitlements = new EnumMap<>(Plan.Name.class);
+            for (PlanInfo plan : plans) {
+                byId.put(plan.id(), plan);
+                byName.put(plan.name(), plan);
+                entitlements.put(plan.name(), Entitlements.of(plan));
+            }
+            return new Snapshot(List.copyOf(plans), Map.copyOf(byId), Collections.unmodifiableMap(byName),
+                    Collections.unmodifiableMap(entitlements));
+        }
+    }
+
+    private final PlanRepository planRepository;
+    private volatile Snapshot snapshot;
+
+    public PlanCatalog(PlanRepository planRepository) {
+        this.planRepository = planRepository;
+        this.snapshot = load();
+        log.info("Plan catalog loaded with {} plans", snapshot.plans().size());
+    }
+
+    @Scheduled(fixedDelayString = "${subscription.plans.refresh-millis:60000}",
+            initialDelayString = "${subscription.plans.refresh-millis:60000}")
+    public void refresh() {
+        Snapshot loaded = load();
+        if (!loaded.plans().equals(snapshot.plans())) {
+            snapshot = loaded;
+            log.info("Plan catalog reloaded with {} plans", loaded.plans().size());
+        }
+    }
+
+    public List<PlanInfo> plans() {
+        return snapshot.plans();
+    }
+
+    public Optional<PlanInfo> plan(Plan.Name name) {
+        return Optional.ofNullable(snapshot.byName().get(name));
+    }
+
+    public Optional<PlanInfo> plan(UUID id) {
+        return Optional.ofNullable(snapshot.byId().get(id));
+    }
+
+    /**
+     * Entitlements of the plan with the given id, those of the FREE plan when it is unknown or {@code null}.
+     */
+    public Entitlements entitlements(UUID planId) {
+        Snapshot current = snapshot;
+        PlanInfo plan = planId != null ? current.byId().get(planId) : null;
+        Entitlements entitlements = current.entitlements().get(plan != null ? plan.name() : Plan.Name.FREE);
+        return entitlements != null ? entitlements : Entitlements.NONE;
+    }
+
+    private Snapshot load() {
+        return Snapshot.of(planRepository.findAll().stream()
+                .map(PlanInfo::of)
+                .sorted(Comparator.comparing(PlanInfo::name))
+                .toList());
+    }
+}
@@ -0,0 +1,239 @@
+package com.plateforme.electronique.subscription.service;
+
+import com.plateforme.electronique.subscription.client.PaymentClient;
+import com.plateforme.electronique.subscription.dto.BatchPaymentRequest;
+import com.plateforme.electronique.subscription.dto.DueSubscription;
+import com.plateforme.electronique.subscription.dto.RenewalRunResult;
+import com.plateforme.electronique.subscription.dto.SubscriptionPaymentRequest;
+import com.plateforme.electronique.subscription.entity.RenewalPartition;
+import com.plateforme.electronique.subscription.repository.RenewalPartitionRepository;
+import com.plateforme.electronique.subscription.repository.SubscriptionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Renews the auto-renewing subscriptions that are due and expires those that ended without renewing.
+ *
+ * <p>Subscriptions are split into 64 partitions by the stored {@code renewal_bucket} column, a hash of their
+ * id that is part of the renewal index, so a partition never reads the rows of another. An instance works on
+ * a partition only while it holds its lease in {@code renewal_partitions}, so instances running at the same
+ * time share the partitions, and one that dies mid-run leaves its partition to be taken over once the lease
+ * expires.
+ *
+ * <p>Due subscriptions are read page by page in (end date, id) order, so memory does not depend on their
+ * number. For each page the payments of the next periods are created with one call to payment-service, then
+ * the next periods are inserted, the renewed ones marked EXPIRED and the checkpoint moved forward in a single
+ * transaction. Next periods get an id derived from the period they follow, which is also the key of their
+ * payment: a page replayed after a failure creates neither a second period nor a second payment. A
+ * subscription cancelled between the two steps is not renewed, but its payment stays PENDING.
+ *
+ * <p>Subscriptions that ended without renewing are expired with set-based updates of at most
+ * {@code page-size} rows each.
+ */
+@Service
+@Slf4j
+public class RenewalEngine {
+
+    private static final LocalDate FIRST_END_DATE = LocalDate.of(1, 1, 1);
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final RenewalPartitionRepository partitionRepository;
+    private final SubscriptionService subscriptionService;
+    private final PlanCatalog planCatalog;
+    private final PaymentClient paymentClient;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final Duration lease;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public RenewalEngine(SubscriptionRepository subscriptionRepository,
+                         RenewalPartitionRepository partitionRepository,
+                         SubscriptionService subscriptionService,
+                         PlanCatalog planCatalog,
+                         PaymentClient paymentClient,
+                         JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${subscription.renewals.page-size:1000}") int pageSize,
+                         @Value("${subscription.renewals.lease-seconds:300}") long leaseSeconds) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.partitionRepository = partitionRepository;
+        this.subscriptionService = subscriptionService;
+        this.planCatalog = planCatalog;
+        this.paymentClient = paymentClient;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageSize = Math.max(1, Math.min(pageSize, PaymentClient.MAX_BATCH_SIZE));
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    @Scheduled(cron = "${subscription.renewals.cron:0 30 0 * * *}")
+    public void runScheduled() {
+        run(LocalDate.now());
+    }
+
+    /**
+     * Processes the partitions that are not done for {@code runDate} and not leased by another instance, in
+     * random order so that instances started together begin with different partitions.
+     */
+    public RenewalRunResult run(LocalDate runDate) {
+        long started = System.nanoTime();
+        int partitions = SubscriptionRepository.RENEWAL_BUCKETS;
+        List<Integer> order = new ArrayList<>(IntStream.range(0, partitions).boxed().toList());
+        Collections.shuffle(order);
+        int processed = 0;
+        int skipped = 0;
+        int failed = 0;
+        long renewed = 0;
+        long expired = 0;
+        for (int partition : order) {
+            String key = partition + "/" + partitions;
+            Optional<RenewalPartition> claimed = transactionTemplate.execute(status -> partitionRepository.claim(key,
+                    runDate, instanceId, LocalDateTime.now().plus(lease), LocalDateTime.now()));
+            if (claimed.isEmpty() || claimed.get().isCompleted()) {
+                claimed.ifPresent(this::release);
+                skipped++;
+                continue;
+            }
+            RenewalPartition state = claimed.get();
+            long renewedBefore = state.getRenewed();
+            long expiredBefore = state.getExpired();
+            try {
+                process(state, partition);
+                processed++;
+            } catch (RuntimeException e) {
+                log.warn("Renewal of partition {} for {} stopped: {}", key, runDate, e.toString());
+                failed++;
+            } finally {
+                release(state);
+            }
+            renewed += state.getRenewed() - renewedBefore;
+            expired += state.getExpired() - expiredBefore;
+        }
+        RenewalRunResult result = new RenewalRunResult(runDate, processed, skipped, failed, renewed, expired,
+                (System.nanoTime() - started) / 1_000_000);
+        log.info("Renewal run {}", result);
+        return result;
+    }
+
+    private void process(RenewalPartition state, int partition) {
+        LocalDate runDate = state.getRunDate();
+        int expired;
+        do {
+            expired = transactionTemplate.execute(status -> {
+                int count = subscriptionRepository.expireEnded(partition, runDate, pageSize);
+                state.setExpired(state.getExpired() + count);
+                checkpoint(state);
+                return count;
+            });
+        } while (expired == pageSize);
+
+        while (!state.isCompleted()) {
+            List<DueSubscription> page = subscriptionRepository.findDueForRenewal(partition, runDate,
+                    state.getLastEndDate() != null ? state.getLastEndDate() : FIRST_END_DATE,
+                    state.getLastSubscriptionId() != null ? state.getLastSubscriptionId() : FIRST_ID,
+                    pageSize);
+            List<Renewal> renewals = page.stream().map(this::renewal).toList();
+            List<SubscriptionPaymentRequest> payments = renewals.stream()
+                    .filter(renewal -> renewal.amount() != null && renewal.amount().signum() > 0)
+                    .map(renewal -> new SubscriptionPaymentRequest(renewal.id(), renewal.due().getUserId(),
+                            renewal.amount()))
+                    .toList();
+            if (!payments.isEmpty()) {
+                paymentClient.createBatch(new BatchPaymentRequest(payments));
+            }
+            List<UUID> renewedUsers = transactionTemplate.execute(status -> {
+                List<Renewal> current = renewals.isEmpty() ? renewals : stillDue(renewals);
+                insert(current);
+                if (!page.isEmpty()) {
+                    DueSubscription last = page.get(page.size() - 1);
+                    state.setLastEndDate(last.getEndDate());
+                    state.setLastSubscriptionId(last.getId());
+                }
+                state.setCompleted(page.size() < pageSize);
+                state.setRenewed(state.getRenewed() + current.size());
+                checkpoint(state);
+                return current.stream().map(renewal -> renewal.due().getUserId()).toList();
+            });
+            renewedUsers.forEach(subscriptionService::evict);
+        }
+    }
+
+    /**
+     * Ends the renewed subscriptions and keeps those that were still due.
+     */
+    private List<Renewal> stillDue(List<Renewal> renewals) {
+        Set<UUID> ended = new HashSet<>(subscriptionRepository.endRenewed(
+                renewals.stream().map(renewal -> renewal.due().getId()).toList()));
+        return renewals.stream().filter(renewal -> ended.contains(renewal.due().getId())).toList();
+    }
+
+    private void insert(List<Renewal> renewals) {
+        if (renewals.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO subscriptions (id, user_id, plan_id, status, start_date, end_date, "
+                        + "auto_renew) VALUES (?, ?, ?, 'ACTIVE', ?, ?, true) ON CONFLICT (id) DO NOTHING",
+                renewals, renewals.size(), (statement, renewal) -> {
+                    statement.setObject(1, renewal.id());
+                    statement.setObject(2, renewal.due().getUserId());
+                    statement.setObject(3, renewal.due().getPlanId());
+                    statement.setObject(4, renewal.due().getEndDate());
+                    statement.setObject(5, renewal.endDate());
+                });
+    }
+
+    private void checkpoint(RenewalPartition state) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = partitionRepository.checkpoint(state.getPartitionKey(), instanceId, state.getLastEndDate(),
+                state.getLastSubscriptionId(), state.isCompleted(), state.getRenewed(), state.getExpired(),
+                now.plus(lease), now);
+        if (updated == 0) {
+            throw new IllegalStateException("Lease of renewal partition " + state.getPartitionKey() + " lost");
+        }
+    }
+
+    private void release(RenewalPartition state) {
+        transactionTemplate.executeWithoutResult(status ->
+                partitionRepository.release(state.getPartitionKey(), instanceId));
+    }
+
+    /**
+     * Next period of a due subscription, as long as the current one: a year when the current one lasts at
+     * least a year, a month otherwise.
+     */
+    private Renewal renewal(DueSubscription due) {
+        LocalDate start = due.getStartDate();
+        boolean annual = start != null && !start.plusYears(1).isAfter(due.getEndDate());
+        LocalDate endDate = annual ? due.getEndDate().plusYears(1) : due.getEndDate().plusMonths(1);
+        UUID id = UUID.nameUUIDFromBytes(("renewal:" + due.getId() + ":" + due.getEndDate())
+                .getBytes(StandardCharsets.UTF_8));
+        BigDecimal amount = planCatalog.plan(due.getPlanId())
+                .map(plan -> annual ? plan.priceAnnual() : plan.priceMonthly())
+                .orElse(null);
+        return new Renewal(due, id, endDate, amount);
+    }
+
+    private record Renewal(DueSubscription due, UUID id, LocalDate endDate, BigDecimal amount) {
+    }
+}
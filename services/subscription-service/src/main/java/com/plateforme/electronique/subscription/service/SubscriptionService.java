@@ -0,0 +1,159 @@
+package com.plateforme.electronique.subscription.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plateforme.electronique.subscription.client.PaymentClient;
+import com.plateforme.electronique.subscription.dto.BatchPaymentRequest;
+import com.plateforme.electronique.subscription.dto.Entitlements;
+import com.plateforme.electronique.subscription.dto.PlanInfo;
+import com.plateforme.electronique.subscription.dto.SubscribeRequest;
+import com.plateforme.electronique.subscription.dto.SubscriptionPaymentRequest;
+import com.plateforme.electronique.subscription.dto.SubscriptionResponse;
+import com.plateforme.electronique.subscription.entity.Plan;
+import com.plateforme.electronique.subscription.entity.Subscription;
+import com.plateforme.electronique.subscription.repository.PlanRepository;
+import com.plateforme.electronique.subscription.repository.SubscriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class SubscriptionService {
+
+    /**
+     * Active subscription of a user, reduced to what entitlement checks need.
+     */
+    private record ActivePlan(UUID planId, LocalDate endDate) {
+
+        static final ActivePlan NONE = new ActivePlan(null, null);
+    }
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final PlanRepository planRepository;
+    private final PlanCatalog planCatalog;
+    private final PaymentClient paymentClient;
+    private final Cache<UUID, ActivePlan> activePlans;
+
+    public SubscriptionService(SubscriptionRepository subscriptionRepository,
+                               PlanRepository planRepository,
+                               PlanCatalog planCatalog,
+                               PaymentClient paymentClient,
+                               @Value("${subscription.active-cache.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${subscription.active-cache.maximum-size:100000}") long maximumSize) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.planRepository = planRepository;
+        this.planCatalog = planCatalog;
+        this.paymentClient = paymentClient;
+        this.activePlans = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Entitlements of the user's active subscription, or of the FREE plan when there is none or it has ended.
+     * Answered from memory once the user's subscription is cached.
+     */
+    public Entitlements entitlements(UUID userId) {
+        ActivePlan active = activePlans.get(userId, this::loadActivePlan);
+        if (active.endDate() != null && active.endDate().isBefore(LocalDate.now())) {
+            return planCatalog.entitlements(null);
+        }
+        return planCatalog.entitlements(active.planId());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<SubscriptionResponse> current(UUID userId) {
+        return subscriptionRepository.findFirstByUserIdAndStatusOrderByEndDateDesc(userId, Subscription.Status.ACTIVE)
+                .map(this::toResponse);
+    }
+
+    /**
+     * Starts a subscription to the plan today, ending the user's active one. The payment of the first period
+     * is created before the transaction commits, so a paid plan is never granted without one, and a failed
+     * call leaves the user's subscription as it was. Of two subscriptions started at the same time, the
+     * unique index on the active subscription of a user only lets one through.
+     */
+    @Transactional
+    public SubscriptionResponse subscribe(UUID userId, SubscribeRequest request) {
+        PlanInfo plan = planCatalog.plan(request.getPlan())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown plan " + request.getPlan()));
+        subscriptionRepository.findFirstByUserIdAndStatusOrderByEndDateDesc(userId, Subscription.Status.ACTIVE)
+                .ifPresent(active -> active.setStatus(Subscription.Status.CANCELLED));
+        // Hibernate runs inserts before updates: the active subscription is ended first.
+        subscriptionRepository.flush();
+        LocalDate today = LocalDate.now();
+        Subscription subscription = Subscription.builder()
+                .userId(userId)
+                .plan(planRepository.getReferenceById(plan.id()))
+                .startDate(today)
+                .endDate(request.isAnnual() ? today.plusYears(1) : today.plusMonths(1))
+                .autoRenew(request.isAutoRenew())
+                .build();
+        try {
+            subscription = subscriptionRepository.saveAndFlush(subscription);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("Another subscription of the user was started at the same time", e);
+        }
+        BigDecimal amount = request.isAnnual() ? plan.priceAnnual() : plan.priceMonthly();
+        if (amount != null && amount.signum() > 0) {
+            paymentClient.createBatch(new BatchPaymentRequest(List.of(
+                    new SubscriptionPaymentRequest(subscription.getId(), userId, amount))));
+        }
+        evictAfterCommit(userId);
+        return toResponse(subscription);
+    }
+
+    @Transactional
+    public SubscriptionResponse cancel(UUID id, UUID userId) {
+        Subscription subscription = subscriptionRepository.findById(id)
+                .filter(found -> found.getUserId().equals(userId))
+                .orElseThrow(() -> new IllegalArgumentException("Subscription not found"));
+        if (subscription.getStatus() != Subscription.Status.ACTIVE) {
+            throw new IllegalStateException("Only active subscriptions can be cancelled");
+        }
+        subscription.setStatus(Subscription.Status.CANCELLED);
+        subscription.setAutoRenew(false);
+        evictAfterCommit(userId);
+        return toResponse(subscription);
+    }
+
+    /**
+     * Drops the cached subscription of the user, after a change made outside of this service.
+     */
+    public void evict(UUID userId) {
+        activePlans.invalidate(userId);
+    }
+
+    private ActivePlan loadActivePlan(UUID userId) {
+        return subscriptionRepository.findFirstByUserIdAndStatusOrderByEndDateDesc(userId, Subscription.Status.ACTIVE)
+                .map(subscription -> new ActivePlan(subscription.getPlan().getId(), subscription.getEndDate()))
+                .orElse(ActivePlan.NONE);
+    }
+
+    private void evictAfterCommit(UUID userId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                activePlans.invalidate(userId);
+            }
+        });
+    }
+
+    private SubscriptionResponse toResponse(Subscription subscription) {
+        Plan.Name plan = planCatalog.plan(subscription.getPlan().getId()).map(PlanInfo::name).orElse(null);
+        return new SubscriptionResponse(subscription.getId(), subscription.getUserId(), plan,
+                subscription.getStatus(), subscription.getStartDate(), subscription.getEndDate(),
+                subscription.isAutoRenew());
+    }
+}
@@ -0,0 +1,34 @@
+INSERT INTO plans (
+    id,
+    name,
+    description,
+    price_monthly,
+    price_annual,
+    max_invoices_per_month,
+    max_users,
+    signature_included,
+    api_access
+) VALUES
+    ('11111111-1111-1111-1111-111111113001', 'FREE', 'Découverte : 20 factures par mois', 0.00, 0.00, 20, 1, false, false),
+    ('11111111-1111-1111-1111-111111113002', 'BASIC', 'Indépendants : 200 factures par mois', 29.00, 290.00, 200, 3, false, false),
+    ('11111111-1111-1111-1111-111111113003', 'PREMIUM', 'PME : signature électronique et accès API', 79.00, 790.00, 2000, 10, true, true),
+    ('11111111-1111-1111-1111-111111113004', 'ENTERPRISE', 'Grands comptes : volumes illimités', 249.00, 2490.00, NULL, NULL, true, true)
+ON CONFLICT (name) DO NOTHING;
+
+INSERT INTO subscriptions (
+    id,
+    user_id,
+    plan_id,
+    status,
+    start_date,
+    end_date,
+    auto_renew
+) VALUES (
+    '11111111-1111-1111-1111-111111114001',
+    '11111111-1111-1111-1111-111111111111',
+    '11111111-1111-1111-1111-111111113003',
+    'ACTIVE',
+    '2026-01-01',
+    '2027-01-01',
+    true
+) ON CONFLICT (id) DO NOTHING;
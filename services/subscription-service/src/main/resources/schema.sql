@@ -0,0 +1,22 @@
+-- Runs after Hibernate updated the schema (spring.jpa.defer-datasource-initialization), on every start.
+
+-- Stored hash bucket of each subscription, in the renewal index so that the renewal of a bucket only reads
+-- that bucket's rows. Not mapped by the entity: the database computes it.
+ALTER TABLE subscriptions ADD COLUMN IF NOT EXISTS renewal_bucket smallint
+    GENERATED ALWAYS AS (CAST((hashtext(CAST(id AS text)) & 2147483647) % 64 AS smallint)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_subscription_renewal
+    ON subscriptions (status, auto_renew, renewal_bucket, end_date, id) INCLUDE (user_id, plan_id, start_date);
+
+-- A user has at most one active subscription. Concurrent subscriptions could leave several before this index;
+-- all but the one entitlements are read from, the longest running, are cancelled first.
+UPDATE subscriptions s SET status = 'CANCELLED'
+FROM (
+    SELECT id, ROW_NUMBER() OVER (PARTITION BY user_id ORDER BY end_date DESC, id) AS position
+    FROM subscriptions
+    WHERE status = 'ACTIVE'
+      AND NOT EXISTS (SELECT 1 FROM pg_indexes WHERE indexname = 'uk_subscription_user_active')
+) ranked
+WHERE s.id = ranked.id AND ranked.position > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_subscription_user_active ON subscriptions (user_id) WHERE status = 'ACTIVE';
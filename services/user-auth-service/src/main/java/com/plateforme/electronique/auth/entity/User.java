@@ -1,5 +1,6 @@
 package com.plateforme.electronique.auth.entity;
 
+import com.plateforme.electronique.auth.security.UserPrincipalCacheListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -15,6 +16,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(UserPrincipalCacheListener.class)
 public class User {
 
     @Id
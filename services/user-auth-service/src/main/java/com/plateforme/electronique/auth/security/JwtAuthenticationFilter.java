@@ -1,13 +1,12 @@
 package com.plateforme.electronique.auth.security;
 
 import com.plateforme.electronique.auth.entity.User;
-import com.plateforme.electronique.auth.repository.UserRepository;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jws;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,16 +16,22 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
+    private final boolean stateless;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserPrincipalCache principalCache,
+                                   @Value("${security.jwt.stateless:false}") boolean stateless) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+        this.stateless = stateless;
     }
 
     @Override
@@ -36,9 +41,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                Jws<Claims> claims = jwtService.parse(token);
-                String email = claims.getBody().getSubject();
-                userRepository.findByEmail(email).ifPresent(user -> {
+                Claims claims = jwtService.parse(token).getBody();
+                resolvePrincipal(claims).ifPresent(user -> {
                     if (user.isActive()) {
                         UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
                                 user, null, List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
@@ -52,4 +56,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         filterChain.doFilter(request, response);
     }
+
+    private Optional<User> resolvePrincipal(Claims claims) {
+        if (!stateless) {
+            return principalCache.findByEmail(claims.getSubject());
+        }
+        // Trusts the claims signed at login: deactivation or role changes apply once the token expires.
+        return Optional.of(User.builder()
+                .id(UUID.fromString(claims.get("userId", String.class)))
+                .email(claims.getSubject())
+                .role(User.Role.valueOf(claims.get("role", String.class)))
+                .active(true)
+                .build());
+    }
 }
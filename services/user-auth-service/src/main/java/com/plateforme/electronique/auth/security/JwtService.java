@@ -1,11 +1,15 @@
 package com.plateforme.electronique.auth.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
@@ -15,13 +19,38 @@ public class JwtService {
 
     private final Key signingKey;
     private final long accessTokenSeconds;
+    private final JwtParser parser;
+    private final Cache<String, Jws<Claims>> verifiedTokens;
 
     public JwtService(
             @Value("${security.jwt.secret}") String secret,
-            @Value("${security.jwt.access-token-seconds}") long accessTokenSeconds
+            @Value("${security.jwt.access-token-seconds}") long accessTokenSeconds,
+            @Value("${security.jwt.verified-cache-size:10000}") long verifiedCacheSize
     ) {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessTokenSeconds = accessTokenSeconds;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Jws<Claims>>() {
+                    @Override
+                    public long expireAfterCreate(String token, Jws<Claims> jws, long currentTime) {
+                        return remainingLifetime(jws).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Jws<Claims> jws, long currentTime, long currentDuration) {
+                        return remainingLifetime(jws).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Jws<Claims> jws, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String subject, Map<String, Object> claims) {
@@ -36,13 +65,25 @@ public class JwtService {
     }
 
     public Jws<Claims> parse(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token);
+        Jws<Claims> verified = verifiedTokens.getIfPresent(token);
+        if (verified != null) {
+            return verified;
+        }
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        verifiedTokens.put(token, jws);
+        return jws;
     }
 
     public long getAccessTokenSeconds() {
         return accessTokenSeconds;
     }
+
+    private Duration remainingLifetime(Jws<Claims> jws) {
+        Date expiration = jws.getBody().getExpiration();
+        if (expiration == null) {
+            return Duration.ofSeconds(accessTokenSeconds);
+        }
+        Duration remaining = Duration.between(Instant.now(), expiration.toInstant());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
 }
@@ -0,0 +1,46 @@
+package com.plateforme.electronique.auth.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.plateforme.electronique.auth.entity.User;
+import com.plateforme.electronique.auth.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+public class UserPrincipalCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> cache;
+    private final boolean enabled;
+
+    public UserPrincipalCache(
+            UserRepository userRepository,
+            @Value("${security.principal-cache.enabled:true}") boolean enabled,
+            @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${security.principal-cache.maximum-size:10000}") long maximumSize,
+            @Value("${security.jwt.access-token-seconds}") long accessTokenSeconds
+    ) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.min(ttlSeconds, accessTokenSeconds)))
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (!enabled) {
+            return userRepository.findByEmail(email);
+        }
+        return Optional.ofNullable(cache.get(email, key -> userRepository.findByEmail(key).orElse(null)));
+    }
+
+    public void invalidate(UUID userId) {
+        cache.asMap().values().removeIf(user -> userId.equals(user.getId()));
+    }
+}
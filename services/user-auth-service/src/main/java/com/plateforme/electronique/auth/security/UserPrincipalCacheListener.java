@@ -0,0 +1,41 @@
+package com.plateforme.electronique.auth.security;
+
+import com.plateforme.electronique.auth.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entity listener, created by Hibernate while the entity manager factory starts: the cache, which needs
+ * the repository and therefore that factory, is only looked up when an event arrives.
+ *
+ * <p>Events fire at flush time, before the change is visible to other transactions; the eviction is deferred
+ * until the commit, otherwise a concurrent request could cache the old row again for the whole TTL.
+ */
+@Component
+public class UserPrincipalCacheListener {
+
+    private final ObjectProvider<UserPrincipalCache> principalCache;
+
+    public UserPrincipalCacheListener(ObjectProvider<UserPrincipalCache> principalCache) {
+        this.principalCache = principalCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            principalCache.getObject().invalidate(user.getId());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principalCache.getObject().invalidate(user.getId());
+            }
+        });
+    }
+}
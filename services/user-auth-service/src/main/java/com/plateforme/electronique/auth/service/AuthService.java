@@ -7,6 +7,7 @@ import com.plateforme.electronique.auth.repository.RefreshTokenRepository;
 import com.plateforme.electronique.auth.repository.UserRepository;
 import com.plateforme.electronique.auth.security.JwtService;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -21,15 +22,18 @@ public class AuthService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final boolean stateless;
 
     public AuthService(UserRepository userRepository,
                        RefreshTokenRepository refreshTokenRepository,
                        PasswordEncoder passwordEncoder,
-                       JwtService jwtService) {
+                       JwtService jwtService,
+                       @Value("${security.jwt.stateless:false}") boolean stateless) {
         this.userRepository = userRepository;
         this.refreshTokenRepository = refreshTokenRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
+        this.stateless = stateless;
     }
 
     public AuthResponse register(RegisterRequest request) {
@@ -84,7 +88,15 @@ public class AuthService {
                 });
     }
 
-    public UserProfileResponse profile(User user) {
+    /**
+     * Profile of the authenticated user. In stateless mode the principal only carries the token claims, so the
+     * rest of the profile is read from the database; otherwise the filter already loaded the full user.
+     */
+    public UserProfileResponse profile(User principal) {
+        User user = stateless
+                ? userRepository.findById(principal.getId())
+                        .orElseThrow(() -> new IllegalArgumentException("User not found"))
+                : principal;
         return UserProfileResponse.builder()
                 .id(user.getId())
                 .email(user.getEmail())
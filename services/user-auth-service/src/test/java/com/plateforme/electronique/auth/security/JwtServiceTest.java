@@ -0,0 +1,63 @@
+package com.plateforme.electronique.auth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret";
+    private static final int TOKENS = 2_000;
+
+    private final JwtService jwtService = new JwtService(SECRET, 3_600, 10_000);
+
+    @Test
+    void repeatedParsesReuseTheVerifiedToken() {
+        String token = jwtService.generateToken("owner@example.com", Map.of("role", "USER"));
+
+        Jws<Claims> first = jwtService.parse(token);
+
+        assertThat(jwtService.parse(token)).isSameAs(first);
+        assertThat(first.getBody().getSubject()).isEqualTo("owner@example.com");
+    }
+
+    @Test
+    void tokensSignedWithAnotherKeyAreRejected() {
+        JwtService other = new JwtService("another-secret-another-secret-another", 3_600, 10_000);
+        String token = other.generateToken("owner@example.com", Map.of());
+
+        assertThatThrownBy(() -> jwtService.parse(token)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtService.parse(token)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void cachedVerificationIsFasterThanParsingAgain() {
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(jwtService.generateToken("user" + i + "@example.com", Map.of("role", "USER")));
+        }
+        // Warms the parser up on tokens that are not measured.
+        JwtService warmUp = new JwtService(SECRET, 3_600, 10_000);
+        tokens.forEach(warmUp::parse);
+
+        long verifyStart = System.nanoTime();
+        tokens.forEach(jwtService::parse);
+        long verifyNanos = System.nanoTime() - verifyStart;
+
+        long cachedStart = System.nanoTime();
+        tokens.forEach(jwtService::parse);
+        long cachedNanos = System.nanoTime() - cachedStart;
+
+        System.out.printf("JWT parse: %d ns verified, %d ns cached per token%n",
+                verifyNanos / TOKENS, cachedNanos / TOKENS);
+        assertThat(cachedNanos).isLessThan(verifyNanos / 2);
+    }
+}
@@ -0,0 +1,92 @@
+package com.plateforme.electronique.auth.security;
+
+import com.plateforme.electronique.auth.entity.User;
+import com.plateforme.electronique.auth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The filter resolves the principal of every request through this cache: a burst of requests for the same
+ * user must cost one query, not one per request.
+ */
+class UserPrincipalCacheTest {
+
+    private static final String EMAIL = "owner@example.com";
+    private static final int THREADS = 16;
+    private static final int REQUESTS_PER_THREAD = 5_000;
+
+    private final User user = User.builder()
+            .id(UUID.randomUUID())
+            .email(EMAIL)
+            .passwordHash("hash")
+            .active(true)
+            .build();
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void stubRepository() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void concurrentRequestsOfOneUserRunASingleQuery() throws Exception {
+        UserPrincipalCache cache = new UserPrincipalCache(userRepository, true, 300, 10_000, 3_600);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < REQUESTS_PER_THREAD; n++) {
+                        assertThat(cache.findByEmail(EMAIL)).contains(user);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void invalidationReloadsTheUser() {
+        UserPrincipalCache cache = new UserPrincipalCache(userRepository, true, 300, 10_000, 3_600);
+
+        cache.findByEmail(EMAIL);
+        cache.invalidate(user.getId());
+        cache.findByEmail(EMAIL);
+
+        verify(userRepository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void disabledCacheQueriesEveryTime() {
+        UserPrincipalCache cache = new UserPrincipalCache(userRepository, false, 300, 10_000, 3_600);
+
+        for (int n = 0; n < 3; n++) {
+            cache.findByEmail(EMAIL);
+        }
+
+        verify(userRepository, times(3)).findByEmail(EMAIL);
+    }
+}
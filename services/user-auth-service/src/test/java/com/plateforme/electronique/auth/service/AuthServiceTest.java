@@ -0,0 +1,63 @@
+package com.plateforme.electronique.auth.service;
+
+import com.plateforme.electronique.auth.dto.UserProfileResponse;
+import com.plateforme.electronique.auth.entity.User;
+import com.plateforme.electronique.auth.repository.RefreshTokenRepository;
+import com.plateforme.electronique.auth.repository.UserRepository;
+import com.plateforme.electronique.auth.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final User user = User.builder()
+            .id(UUID.randomUUID())
+            .email("owner@example.com")
+            .passwordHash("hash")
+            .firstName("Amel")
+            .companyName("Atlas")
+            .role(User.Role.ACCOUNTANT)
+            .active(true)
+            .build();
+
+    @Test
+    void statefulProfileUsesTheLoadedPrincipal() {
+        UserProfileResponse profile = authService(false).profile(user);
+
+        assertThat(profile.getCompanyName()).isEqualTo("Atlas");
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void statelessProfileReadsTheUserBehindTheClaims() {
+        User claims = User.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .role(user.getRole())
+                .active(true)
+                .build();
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        UserProfileResponse profile = authService(true).profile(claims);
+
+        assertThat(profile.getFirstName()).isEqualTo("Amel");
+        assertThat(profile.getCompanyName()).isEqualTo("Atlas");
+        verify(userRepository).findById(user.getId());
+    }
+
+    private AuthService authService(boolean stateless) {
+        return new AuthService(userRepository, mock(RefreshTokenRepository.class), mock(PasswordEncoder.class),
+                mock(JwtService.class), stateless);
+    }
+}